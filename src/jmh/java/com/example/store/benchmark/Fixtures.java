@@ -0,0 +1,46 @@
+package com.example.store.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+
+import com.example.store.model.Price;
+import com.example.store.model.Product;
+
+/**
+ * Test data shared by the benchmarks.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Product product(int i) {
+        Price price = new Price();
+        price.setAmount(BigDecimal.valueOf(100 + i, 2));
+        price.setCurrency(Currency.getInstance("EUR"));
+        Product product = new Product();
+        product.setName("Benchmark product " + i);
+        product.setPrice(price);
+        return product;
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product(i));
+        }
+        return products;
+    }
+
+    // As read from the database, with Ids, which are random and so don't compress
+    static List<Product> productsWithIds(int count) {
+        List<Product> products = products(count);
+        for (int i = 0; i < count; i++) {
+            products.get(i).setId(UUID.nameUUIDFromBytes(Integer.toString(i).getBytes()));
+        }
+        return products;
+    }
+}
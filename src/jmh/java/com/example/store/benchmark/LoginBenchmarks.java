@@ -0,0 +1,108 @@
+package com.example.store.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.example.store.StoreApplication;
+import com.example.store.security.model.Role;
+import com.example.store.security.model.User;
+import com.example.store.security.repository.RoleRepository;
+import com.example.store.security.repository.UserRepository;
+import com.example.store.security.service.UserDetailsCache;
+
+/**
+ * User resolution and full username/password logins against the in-memory H2 database, served
+ * from the user cache and, evicting the user first, from the database. Logins also pay for a
+ * BCrypt check, with the cost factor SecurityConfig uses. The IntegrationTest profile leaves out
+ * the demo users, so a user of its own is created.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoginBenchmarks {
+
+    private static final String USERNAME = "benchmark";
+    private static final String PASSWORD = "benchmark";
+
+    private ConfigurableApplicationContext context;
+    private UserDetailsService userDetailsService;
+    private UserDetailsCache userDetailsCache;
+    private DaoAuthenticationProvider authenticationProvider;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(StoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("IntegrationTest")
+                .properties("store.audit.dir=target/jmh-audit", "store.audit.file=target/jmh-audit.log")
+                .run();
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        Role role = new Role();
+        role.setName("User");
+        context.getBean(RoleRepository.class).save(role);
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setRoles(Set.of(role));
+        context.getBean(UserRepository.class).save(user);
+
+        userDetailsService = context.getBean(UserDetailsService.class);
+        userDetailsCache = context.getBean(UserDetailsCache.class);
+        authenticationProvider = new DaoAuthenticationProvider(passwordEncoder);
+        authenticationProvider.setUserDetailsService(userDetailsService);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUser() {
+        return userDetailsService.loadUserByUsername(USERNAME);
+    }
+
+    @Benchmark
+    public UserDetails loadUserUncached() {
+        userDetailsCache.invalidate(USERNAME);
+        return userDetailsService.loadUserByUsername(USERNAME);
+    }
+
+    @Benchmark
+    public Authentication login() {
+        return authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, PASSWORD));
+    }
+
+    @Benchmark
+    public Authentication loginUncached() {
+        userDetailsCache.invalidate(USERNAME);
+        return authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, PASSWORD));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.store.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.store.model.Price;
+import com.example.store.model.Product;
+import com.example.store.util.ProductUpdater;
+
+/**
+ * Per-call cost of the entity methods run for every product served or written.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelBenchmarks {
+
+    // Needs rounding, as most client amounts don't
+    private final BigDecimal amount = new BigDecimal("1899.995");
+    private final Currency currency = Currency.getInstance("EUR");
+    private Price price;
+    private Product product;
+    private Product target;
+    private Product update;
+
+    @Setup
+    public void setUp() {
+        price = new Price();
+        product = Fixtures.product(1);
+        target = Fixtures.product(2);
+        update = Fixtures.product(3);
+    }
+
+    @Benchmark
+    public Price priceSetAmount() {
+        price.setAmount(amount);
+        price.setCurrency(currency);
+        return price;
+    }
+
+    @Benchmark
+    public Price priceSetMinorUnits() {
+        price.setMinorUnits(189999);
+        price.setCurrency(currency);
+        return price;
+    }
+
+    @Benchmark
+    public String productToString() {
+        return product.toString();
+    }
+
+    @Benchmark
+    public int productHashCode() {
+        return product.hashCode();
+    }
+
+    @Benchmark
+    public Product prepareUpdate() {
+        return ProductUpdater.prepareUpdate(target, update);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.store.benchmark;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import com.example.store.StoreApplication;
+import com.example.store.dto.Cursor;
+import com.example.store.dto.PriceFilter;
+import com.example.store.dto.ProductField;
+import com.example.store.dto.ProductSuggestion;
+import com.example.store.model.Product;
+import com.example.store.service.ProductService;
+
+/**
+ * ProductService read paths against the in-memory H2 database and the start-up data set,
+ * with the application context started once per fork. The IntegrationTest profile leaves
+ * out the web security configuration and the demo users, neither being needed here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmarks {
+
+    private static final UUID PRODUCT_ID = UUID.fromString("a18920fb-56cd-41c5-8264-ed617c038524");
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10, Sort.by("name"));
+    private static final Set<ProductField> ID_AND_NAME = EnumSet.of(ProductField.ID, ProductField.NAME);
+    private static final PriceFilter NO_FILTER = new PriceFilter(null, null, null);
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(StoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("IntegrationTest")
+                .properties("store.audit.dir=target/jmh-audit", "store.audit.file=target/jmh-audit.log")
+                .run();
+        productService = context.getBean(ProductService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Served from the product cache after the first call
+    @Benchmark
+    public Product findById() {
+        return productService.findById(PRODUCT_ID).orElseThrow();
+    }
+
+    @Benchmark
+    public Page<Product> list() {
+        return productService.list(FIRST_PAGE);
+    }
+
+    // Same page as list(), selecting two columns into maps instead of loading entities
+    @Benchmark
+    public Page<Map<String, Object>> listFields() {
+        return productService.listFields(ID_AND_NAME, NO_FILTER, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Slice<Product> listAfter() {
+        return productService.listAfter(Cursor.START, 10);
+    }
+
+    @Benchmark
+    public Page<Product> search() {
+        return productService.search("Bed", FIRST_PAGE);
+    }
+
+    // What a storefront asks on each keystroke of the term above
+    @Benchmark
+    public List<ProductSuggestion> suggest() {
+        return productService.suggest("Be", 10);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.store.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.store.StoreApplication;
+import com.example.store.model.Product;
+import com.example.store.repository.ProductRepository;
+import com.example.store.service.ProductService;
+import com.example.store.util.ProductUpdater;
+
+/**
+ * PUT of an existing product by concurrent clients, through the single-statement merge of
+ * ProductService against the previous lookup followed by a save. Each thread updates a
+ * product of its own, to measure the path rather than waits on row locks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ProductUpsertBenchmarks {
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @State(Scope.Thread)
+    public static class Target {
+
+        private final UUID id = UUID.randomUUID();
+        private final Product update = Fixtures.product(1);
+
+        @Setup(Level.Trial)
+        public void create(ProductUpsertBenchmarks benchmarks) {
+            benchmarks.productService.upsert(id, Fixtures.product(0));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(StoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("IntegrationTest")
+                .properties("store.audit.dir=target/jmh-audit", "store.audit.file=target/jmh-audit.log")
+                .run();
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Product merge(Target target) {
+        return productService.upsert(target.id, target.update);
+    }
+
+    @Benchmark
+    public Product lookupAndSave(Target target) {
+        return transactionTemplate.execute(status -> productRepository.save(ProductUpdater.prepareUpdate(
+                productRepository.findById(target.id).orElseThrow(), target.update)));
+    }
+}
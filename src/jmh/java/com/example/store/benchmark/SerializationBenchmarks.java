@@ -0,0 +1,80 @@
+package com.example.store.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.store.dto.PaginatedResponse;
+import com.example.store.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Cost of building and serializing a page response, and of reading a batch payload, by page
+ * size. The ObjectMapper is built the way Spring Boot builds the application's one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmarks {
+
+    @Param({ "10", "100", "1000" })
+    private int pageSize;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private Page<Product> page;
+    private PaginatedResponse<Product> response;
+    private ObjectReader productsReader;
+    private byte[] productsJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        List<Product> products = Fixtures.products(pageSize);
+        page = new PageImpl<>(products, PageRequest.of(0, pageSize, Sort.by("name")), 10L * pageSize);
+        response = PaginatedResponse.of(page);
+        productsReader = objectMapper.readerForListOf(Product.class);
+        productsJson = objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public PaginatedResponse<Product> paginatedResponseOf() {
+        return PaginatedResponse.of(page);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] respondWithPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(PaginatedResponse.of(page));
+    }
+
+    // Same payload as a batch PUT or POST
+    @Benchmark
+    public List<Product> deserializeProducts() throws IOException {
+        return productsReader.readValue(productsJson);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.store.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.store.dto.PaginatedResponse;
+import com.example.store.model.Product;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Bytes on the wire and CPU time of a page response, by format and page size, with and
+ * without gzip as Tomcat applies it. Mappers are built as WebConfig builds them. The time is
+ * the CPU cost per request, the wireBytes counter the size of one response body. JMH adds up
+ * counters over the iterations of a run, so the result file has it times the iteration count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WireFormatBenchmarks {
+
+    @Param({ "10", "100", "1000" })
+    private int pageSize;
+
+    @Param({ "json", "cbor", "smile" })
+    private String format;
+
+    @Param({ "false", "true" })
+    private boolean gzip;
+
+    private ObjectWriter writer;
+    private PaginatedResponse<Product> response;
+    // Reused between invocations, as Tomcat reuses its output buffers
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(1 << 16);
+
+    // Set rather than added to, the size being the same at every invocation
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Wire {
+        public long wireBytes;
+    }
+
+    @Setup
+    public void setUp() {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        writer = Jackson2ObjectMapperBuilder.json().factory(factory).build().writer();
+        response = PaginatedResponse.of(new PageImpl<>(Fixtures.productsWithIds(pageSize),
+                PageRequest.of(0, pageSize, Sort.by("name")), 10L * pageSize));
+    }
+
+    @Benchmark
+    public int respond(Wire wire) throws IOException {
+        body.reset();
+        if (gzip) {
+            try (OutputStream out = new GZIPOutputStream(body, 8192)) {
+                writer.writeValue(out, response);
+            }
+        } else {
+            writer.writeValue(body, response);
+        }
+        wire.wireBytes = body.size();
+        return body.size();
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.store.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Closed-loop HTTP load against the application started in a child process by LoadTestServer,
+ * with platform or virtual request threads, or against the reactive read API. Each client sends its next request once the previous
+ * one is answered, so concurrency stays at the client count. Throughput and latency percentiles
+ * are printed per client count.
+ *
+ * Arguments, all optional: stack=servlet|reactive threads=platform|virtual
+ * clients=1000,2500,5000,10000 warmup=5 duration=20 path=/products?size=10 port=18080. The reactive
+ * stack listens on the port after the servlet one, its Netty event loops ignoring the threads
+ * option. Virtual threads need the JVM running this, which the server process shares, on Java 21
+ * or later.
+ */
+public class LoadTest {
+
+    private static final double[] PERCENTILES = { 0.5, 0.99, 0.999 };
+
+    public static void main(String[] args) throws Exception {
+        String stack = option(args, "stack", "servlet");
+        String threads = option(args, "threads", "platform");
+        int[] clients = Arrays.stream(option(args, "clients", "1000,2500,5000,10000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        Duration warmup = Duration.ofSeconds(Long.parseLong(option(args, "warmup", "5")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(option(args, "duration", "20")));
+        String path = option(args, "path", "/products?size=10");
+        int port = Integer.parseInt(option(args, "port", "18080"));
+
+        boolean reactive = "reactive".equals(stack);
+        int targetPort = reactive ? port + 1 : port;
+
+        Process server = startServer(threads, port, reactive);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .executor(executor)
+                    .build();
+            URI uri = URI.create("http://localhost:" + targetPort + path);
+            awaitServer(client, URI.create("http://localhost:" + port + "/actuator/health"));
+            // The reactive server starts after the servlet container
+            awaitServer(client, uri);
+
+            System.out.printf("%n%s, GET %s, %ds per level on %d CPUs, Java %s%n",
+                    reactive ? "reactive" : threads + " threads", path,
+                    duration.toSeconds(), Runtime.getRuntime().availableProcessors(), Runtime.version());
+            System.out.printf("%8s %10s %9s %9s %9s %9s %8s%n", "clients", "req/s", "p50 ms", "p99 ms", "p99.9 ms",
+                    "max ms", "errors");
+            for (int count : clients) {
+                run(client, uri, count, warmup, null);
+                Result result = run(client, uri, count, duration, new SimpleMeterRegistry());
+                System.out.printf("%8d %10.0f %9.1f %9.1f %9.1f %9.1f %8d%n", count, result.throughput,
+                        result.percentiles[0], result.percentiles[1], result.percentiles[2], result.max, result.errors);
+            }
+        } finally {
+            server.destroy();
+            server.waitFor(30, TimeUnit.SECONDS);
+            executor.shutdownNow();
+        }
+    }
+
+    private record Result(double throughput, double[] percentiles, double max, long errors) {
+    }
+
+    // Keep the given number of requests in flight for the duration, recording latencies when
+    // given a registry
+    private static Result run(HttpClient client, URI uri, int clients, Duration duration, SimpleMeterRegistry registry)
+            throws InterruptedException {
+        Timer timer = registry == null ? null : Timer.builder("load.requests")
+                .publishPercentiles(PERCENTILES)
+                .percentilePrecision(2)
+                .distributionStatisticExpiry(Duration.ofHours(1))
+                .distributionStatisticBufferLength(1)
+                .register(registry);
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder completed = new LongAdder();
+        LongAdder errors = new LongAdder();
+        LongAdder inFlight = new LongAdder();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            inFlight.increment();
+            send(client, request, timer, running, completed, errors, inFlight);
+        }
+        Thread.sleep(duration.toMillis());
+        running.set(false);
+        long elapsed = System.nanoTime() - started;
+        // Let the last requests finish before the next level starts
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.sum() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        if (timer == null) {
+            return null;
+        }
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        double[] percentiles = new double[PERCENTILES.length];
+        ValueAtPercentile[] values = snapshot.percentileValues();
+        for (int i = 0; i < values.length; i++) {
+            percentiles[i] = values[i].value(TimeUnit.MILLISECONDS);
+        }
+        return new Result(completed.sum() / (elapsed / 1e9), percentiles, snapshot.max(TimeUnit.MILLISECONDS),
+                errors.sum());
+    }
+
+    private static void send(HttpClient client, HttpRequest request, Timer timer, AtomicBoolean running,
+            LongAdder completed, LongAdder errors, LongAdder inFlight) {
+        long started = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            if (failure != null || response.statusCode() != 200) {
+                errors.increment();
+            } else {
+                completed.increment();
+                if (timer != null) {
+                    timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            }
+            if (running.get()) {
+                send(client, request, timer, running, completed, errors, inFlight);
+            } else {
+                inFlight.decrement();
+            }
+        });
+    }
+
+    // Same JVM and class path as this process, for the server to share the build's classes
+    private static Process startServer(String threads, int port, boolean reactive) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(LoadTestServer.class.getName());
+        command.add("--server.port=" + port);
+        if ("virtual".equals(threads)) {
+            command.add("--spring.profiles.active=virtual");
+        }
+        if (reactive) {
+            command.add("--store.reactive.enabled=true");
+            command.add("--store.reactive.port=" + (port + 1));
+        }
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("target/load-server.log"))
+                .start();
+    }
+
+    private static void awaitServer(HttpClient client, URI health) throws InterruptedException {
+        for (int attempt = 0; attempt < 240; attempt++) {
+            try {
+                if (client.send(HttpRequest.newBuilder(health).build(), HttpResponse.BodyHandlers.discarding())
+                        .statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException e) {
+                // Not listening yet
+            } catch (IOException e) {
+                throw new IllegalStateException("Server check failed", e);
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Server didn't start, see target/load-server.log");
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.store.load;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import com.example.store.StoreApplication;
+import com.example.store.security.config.TestSecurityConfig;
+
+/**
+ * The application as LoadTest runs it, in a process of its own: the IntegrationTest data set
+ * and open security, plus the profiles and properties given as arguments.
+ */
+public class LoadTestServer {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(StoreApplication.class, TestSecurityConfig.class)
+                .profiles("IntegrationTest")
+                .properties("store.audit.dir=target/load-audit", "store.audit.file=target/load-audit.log",
+                        "store.audit.overflow=DROP", "server.tomcat.max-connections=20000",
+                        "server.tomcat.accept-count=1000")
+                .run(args);
+    }
+}
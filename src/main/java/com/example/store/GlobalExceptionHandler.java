@@ -1,5 +1,7 @@
 package com.example.store;
 
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -39,6 +41,15 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 ex.getLocalizedMessage()), HttpStatus.BAD_REQUEST);
     }
 
+    // Concurrent changes to the same product, caught by its version or by its key. The details
+    // are left out, as they may quote SQL.
+    @ExceptionHandler({ OptimisticLockingFailureException.class, DuplicateKeyException.class })
+    public ResponseEntity<?> handleConflict(Exception ex) {
+        logger.warn(ex.getMessage());
+        return new ResponseEntity<>(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "Conflicting change, please retry."), HttpStatus.CONFLICT);
+    }
+
     // Catch-all exception handler for anything not explicitly handled by either
     // ResponseEntityExceptionHandler or handleConstraintViolationException.
     @ExceptionHandler(Exception.class)
@@ -8,6 +8,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.example.store.security.model.User;
@@ -18,8 +19,10 @@ import com.example.store.security.repository.RoleRepository;
 
 /**
  * Application class. It contains a start-up bean that creates the demo users and roles.
+ * Scheduling is enabled for background jobs such as ProductCompactor.
  */
 @SpringBootApplication
+@EnableScheduling
 public class StoreApplication {
 
 	public static void main(String[] args) {
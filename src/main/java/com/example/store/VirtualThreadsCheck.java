@@ -0,0 +1,29 @@
+package com.example.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Warns when the virtual profile is active on a JVM without virtual threads, Spring Boot then
+ * silently keeping platform threads.
+ */
+@Component
+@Profile("virtual")
+public class VirtualThreadsCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsCheck.class);
+
+    private static final int MIN_JAVA_VERSION = 21;
+
+    @PostConstruct
+    public void check() {
+        if (Runtime.version().feature() < MIN_JAVA_VERSION) {
+            logger.warn("The virtual profile needs Java {} or later, running on platform threads with Java {}",
+                    MIN_JAVA_VERSION, Runtime.version());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.store.controller;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.store.log.AuditRecord;
+import com.example.store.log.AuditStore;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+/**
+ * Read access to the audit trail, for administrators. Answered from the audit store's
+ * indexes rather than by scanning audit.log.
+ */
+@RestController
+@Validated
+public class AuditController {
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private AuditStore auditStore;
+
+    // Audited actions, newest first. Filters are optional and combined; from and to are ISO instants.
+    @GetMapping("/audit")
+    public List<AuditRecord> find(
+            @RequestParam(required = false) UUID productId,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "" + DEFAULT_LIMIT) @Min(1) @Max(MAX_LIMIT) int limit) {
+
+        return auditStore.find(productId, username, from, to, limit);
+    }
+}
@@ -3,24 +3,60 @@ package com.example.store.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.ErrorResponseException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.validation.annotation.Validated;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 
+import com.example.store.service.CatalogVersion;
+import com.example.store.service.ProductCompactor;
+import com.example.store.service.ProductImporter;
 import com.example.store.service.ProductService;
 import com.example.store.model.Product;
+import com.example.store.dto.CompactionReport;
+import com.example.store.dto.Cursor;
+import com.example.store.dto.CursorPaginatedResponse;
+import com.example.store.dto.ImportReport;
 import com.example.store.dto.PaginatedResponse;
+import com.example.store.dto.PriceFilter;
+import com.example.store.dto.ProductField;
+import com.example.store.dto.ProductSuggestion;
+import com.example.store.dto.SliceResponse;
 import com.example.store.log.Auditable;
 import com.example.store.model.Price;
 
 /**
  * Main controller of the service. UTF-8 is configured through application.properties.
+ *
+ * Product and list reads carry ETags and Last-Modified, from the product version and the
+ * catalog version respectively, strong for products and weak for lists. Product ETags differ by
+ * format, for caches not to take a CBOR body for the JSON one. A matching
+ * If-None-Match or If-Modified-Since gets a 304, checked before serialization, and for lists
+ * before any database access. PUT honors If-Match against the product ETag, answering 412 if the product was changed since.
  */
 @RestController
 @Validated
@@ -29,28 +65,158 @@ public class ProductController {
     // Default page size and sort criteria
     private static final int PAGE_SIZE = 10;
     private static final String PAGE_SORT = "name";
+    // Same cap as Spring's default for Pageable
+    private static final int MAX_PAGE_SIZE = 2000;
+    // Media types of the export and imports
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    // Binary formats of products next to JSON, see WebConfig
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final List<String> BINARY_FORMATS = List.of("cbor", "smile");
+    // Max completions per suggest request
+    private static final int MAX_SUGGESTIONS = 100;
+    // List parameters keyset pagination and count-free pages don't take
+    private static final List<String> CURSOR_UNSUPPORTED = List.of("sort", "currency", "minPrice", "maxPrice", "fields");
+    private static final List<String> COUNT_FREE_UNSUPPORTED = List.of("fields");
+    // Max products per batch request
+    private static final int MAX_BATCH_SIZE = 10000;
 
     @Autowired
     private ProductService productService;
 
-    // List products by page
+    @Autowired
+    private ProductImporter productImporter;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ProductCompactor productCompactor;
+
+    // List products by page, within a price range when given currency, minPrice or maxPrice
     @GetMapping("/products")
     public PaginatedResponse<Product> list(
-            @PageableDefault(size = PAGE_SIZE, sort = PAGE_SORT) Pageable pageable) {
+            @PageableDefault(size = PAGE_SIZE, sort = PAGE_SORT) Pageable pageable,
+            @Valid PriceFilter priceFilter, WebRequest request) {
 
+        if (catalogNotModified(request)) {
+            return null;
+        }
         // Get page of products
-        Page<Product> products = productService.list(pageable);
+        Page<Product> products = priceFilter.isEmpty()
+                ? productService.list(pageable)
+                : productService.listByPrice(priceFilter, pageable);
         // Respond with a DTO to ensure consistency
         return PaginatedResponse.of(products);
     }
 
-    // Get product by Id
+    // List products by page, narrowed to the given fields, e.g. fields=id,name. Only their
+    // columns are read, in the same envelope as list().
+    @GetMapping(value = "/products", params = { "fields", "!cursor", "count!=false" })
+    public PaginatedResponse<Map<String, Object>> listFields(
+            @RequestParam String fields,
+            @PageableDefault(size = PAGE_SIZE, sort = PAGE_SORT) Pageable pageable,
+            @Valid PriceFilter priceFilter, WebRequest request) {
+
+        Set<ProductField> selected = parseFields(fields);
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return PaginatedResponse.of(productService.listFields(selected, priceFilter, pageable));
+    }
+
+    // List products by page without totals, opted into with count=false. Spares the COUNT
+    // query, reporting whether there is a next page instead.
+    @GetMapping(value = "/products", params = { "count=false", "!cursor" })
+    public SliceResponse<Product> listWithoutCount(
+            @PageableDefault(size = PAGE_SIZE, sort = PAGE_SORT) Pageable pageable,
+            @Valid PriceFilter priceFilter, WebRequest request) {
+
+        rejectUnsupported(request, COUNT_FREE_UNSUPPORTED, "count=false");
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        Slice<Product> products = priceFilter.isEmpty()
+                ? productService.listSlice(pageable)
+                : productService.listByPriceSlice(priceFilter, pageable);
+        return SliceResponse.of(products);
+    }
+
+    // List products by cursor, selected over list() by the presence of the cursor parameter.
+    // An empty cursor starts from the first page. The order is always (name, id).
+    @GetMapping(value = "/products", params = "cursor")
+    public CursorPaginatedResponse<Product> listByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "" + PAGE_SIZE) @Min(1) @Max(MAX_PAGE_SIZE) int size,
+            WebRequest request) {
+
+        rejectUnsupported(request, CURSOR_UNSUPPORTED, "a cursor");
+        Cursor after = decodeCursor(cursor);
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        Slice<Product> products = productService.listAfter(after, size);
+        return CursorPaginatedResponse.of(products);
+    }
+
+    // Get the given fields of a product by Id, with the same validators as findById()
+    @GetMapping(value = "/products/{id}", params = "fields")
+    public Map<String, Object> findFieldsById(@PathVariable UUID id, @RequestParam String fields, WebRequest request) {
+        Set<ProductField> selected = parseFields(fields);
+        Product product = productService.findById(id)
+            .orElseThrow(() -> new ErrorResponseException(HttpStatus.NOT_FOUND));
+        if (request.checkNotModified(etag(product, request.getHeader(HttpHeaders.ACCEPT)), catalogVersion.lastModified())) {
+            return null;
+        }
+        return ProductField.of(product, selected);
+    }
+
+    // The n cheapest products in a currency, cheapest first
+    @GetMapping("/products/cheapest")
+    public List<Product> cheapest(
+            @RequestParam Currency currency,
+            @RequestParam(defaultValue = "" + PAGE_SIZE) @Min(1) @Max(MAX_PAGE_SIZE) int n,
+            WebRequest request) {
+
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return productService.cheapest(currency, n);
+    }
+
+    // Names and Ids of products completing what was typed so far, for autocompletion, from
+    // the in-memory name index. Matches the start of the name or of any word in it.
+    @GetMapping("/products/suggest")
+    public List<ProductSuggestion> suggest(
+            @RequestParam @NotBlank String prefix,
+            @RequestParam(defaultValue = "" + PAGE_SIZE) @Min(1) @Max(MAX_SUGGESTIONS) int limit,
+            WebRequest request) {
+
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return productService.suggest(prefix, limit);
+    }
+
+    // Get product by Id. Cached products are validated without database access.
     @GetMapping("/products/{id}")
-    public Product findById(@PathVariable UUID id) {
-        return productService.findById(id)
+    public Product findById(@PathVariable UUID id, WebRequest request) {
+        Product product = productService.findById(id)
             .orElseThrow(() -> new ErrorResponseException(HttpStatus.NOT_FOUND));
+        // Last-Modified of the catalog, a product not changing after it
+        if (request.checkNotModified(etag(product, request.getHeader(HttpHeaders.ACCEPT)), catalogVersion.lastModified())) {
+            return null;
+        }
+        return product;
     }
     
+    // Export every live product as newline-delimited JSON, streamed from the database in chunks
+    @GetMapping(value = "/products/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = out -> productService.export(out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     // Find product by name (price not included in search)
     // Given the purpose of the project, the search is not FULLTEXT
     @GetMapping("/products/search")
@@ -63,6 +229,41 @@ public class ProductController {
         return PaginatedResponse.of(products);
     }
 
+    // Search narrowed to the given fields, same as listFields()
+    @GetMapping(value = "/products/search", params = { "fields", "!cursor", "count!=false" })
+    public PaginatedResponse<Map<String, Object>> searchFields(
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam String fields,
+            @PageableDefault(size = PAGE_SIZE, sort = PAGE_SORT) Pageable pageable) {
+
+        return PaginatedResponse.of(productService.searchFields(parseFields(fields), searchTerm, pageable));
+    }
+
+    // Count-free counterpart of search(), same as listWithoutCount()
+    @GetMapping(value = "/products/search", params = { "count=false", "!cursor" })
+    public SliceResponse<Product> searchWithoutCount(
+            @RequestParam(required = false) String searchTerm,
+            @PageableDefault(size = PAGE_SIZE, sort = PAGE_SORT) Pageable pageable,
+            WebRequest request) {
+
+        rejectUnsupported(request, COUNT_FREE_UNSUPPORTED, "count=false");
+        Slice<Product> products = productService.searchSlice(searchTerm, pageable);
+        return SliceResponse.of(products);
+    }
+
+    // Keyset counterpart of search(), same as listByCursor()
+    @GetMapping(value = "/products/search", params = "cursor")
+    public CursorPaginatedResponse<Product> searchByCursor(
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "" + PAGE_SIZE) @Min(1) @Max(MAX_PAGE_SIZE) int size,
+            WebRequest request) {
+
+        rejectUnsupported(request, CURSOR_UNSUPPORTED, "a cursor");
+        Slice<Product> products = productService.searchAfter(searchTerm, decodeCursor(cursor), size);
+        return CursorPaginatedResponse.of(products);
+    }
+
     // Create new product
     // With @Auditable to trace this action in audit log, same as other DB changing actions
     @Auditable
@@ -71,12 +272,51 @@ public class ProductController {
         return productService.create(product);
     }
 
+    // Create new products in bulk. Payload Ids are ignored. One audit entry per batch.
+    @Auditable
+    @PostMapping("/products/batch")
+    public List<Product> createAll(@RequestBody @Size(min = 1, max = MAX_BATCH_SIZE) List<@Valid Product> products) {
+        return productService.createAll(products);
+    }
+
+    // Create or update products in bulk, by their payload Ids
+    @Auditable
+    @PutMapping("/products/batch")
+    public List<Product> upsertAll(@RequestBody @Size(min = 1, max = MAX_BATCH_SIZE) List<@Valid Product> products) {
+        return productService.upsertAll(products);
+    }
+
+    // Import products from a newline-delimited JSON upload, created or updated by their Ids.
+    // The body is read as a stream and written in chunks, invalid rows being reported.
+    @Auditable
+    @PostMapping(value = "/products/import", consumes = NDJSON)
+    public ImportReport importNdjson(InputStream body) throws IOException {
+        return productImporter.importNdjson(body);
+    }
+
+    // Same as importNdjson(), for CSV with a header row. Missing required columns are a bad request.
+    @Auditable
+    @PostMapping(value = "/products/import", consumes = CSV)
+    public ImportReport importCsv(InputStream body) throws IOException {
+        try {
+            return productImporter.importCsv(body);
+        } catch (IllegalArgumentException e) {
+            throw new ErrorResponseException(HttpStatus.BAD_REQUEST, e);
+        }
+    }
+
     // Idempotent action, creates a product with the given Id or updates if it already exists
     // Only the path Id is considered; if present in the request body, it is ignored
+    // With If-Match, only an existing product is updated, if its ETag matches or for "*"
     @Auditable
     @PutMapping("/products/{id}")
-    public Product upsert(@PathVariable UUID id, @Valid @RequestBody Product product, HttpServletRequest request) {
-        return productService.upsert(id, product);
+    public ResponseEntity<Product> upsert(@PathVariable UUID id, @Valid @RequestBody Product product,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, HttpServletRequest request) {
+        Product upserted = ifMatch == null
+                ? productService.upsert(id, product)
+                : productService.updateIfVersion(id, product, expectedVersion(ifMatch))
+                        .orElseThrow(() -> new ErrorResponseException(HttpStatus.PRECONDITION_FAILED));
+        return ResponseEntity.ok().eTag(etag(upserted, request.getHeader(HttpHeaders.ACCEPT))).body(upserted);
     }
 
     // Change the price of a product. If a name is present in body, it is ignored.
@@ -102,4 +342,103 @@ public class ProductController {
         productService.deleteById(id);
     }
 
+    // Archive deleted products past the retention window now, rather than at the next
+    // scheduled run. Conflicts with a run already going.
+    @Auditable
+    @PostMapping("/products/archive")
+    public CompactionReport archive() {
+        return productCompactor.compact()
+                .orElseThrow(() -> new ErrorResponseException(HttpStatus.CONFLICT));
+    }
+
+    // Sets the catalog's ETag and Last-Modified, true if the client's copy is current
+    private boolean catalogNotModified(WebRequest request) {
+        return request.checkNotModified(catalogVersion.etag(), catalogVersion.lastModified());
+    }
+
+    // Strong ETag of a product, from its version. The binary formats add their name, their
+    // bodies differing from the JSON one byte for byte.
+    private static String etag(Product product, String accept) {
+        String format = binaryFormat(accept);
+        return "\"" + product.getVersion() + (format == null ? "" : "-" + format) + "\"";
+    }
+
+    // Binary format the Accept header negotiates, null for JSON. Follows the order of the
+    // converters, JSON coming first for wildcards.
+    private static String binaryFormat(String accept) {
+        if (accept == null) {
+            return null;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            if (type.includes(MediaType.APPLICATION_CBOR)) {
+                return "cbor";
+            }
+            if (type.includes(SMILE)) {
+                return "smile";
+            }
+        }
+        return null;
+    }
+
+    // Version named by an If-Match header, null for "*". The ETag of any format names it.
+    // Weak or unknown ETags can't match.
+    private static Long expectedVersion(String ifMatch) {
+        String etag = ifMatch.strip();
+        if (etag.equals("*")) {
+            return null;
+        }
+        try {
+            if (etag.length() > 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+                String tag = etag.substring(1, etag.length() - 1);
+                int dash = tag.indexOf('-');
+                if (dash >= 0 && BINARY_FORMATS.contains(tag.substring(dash + 1))) {
+                    tag = tag.substring(0, dash);
+                }
+                return Long.valueOf(tag);
+            }
+        } catch (NumberFormatException e) {
+            // Falls through to 412
+        }
+        throw new ErrorResponseException(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    // Unknown field names are a bad request
+    private static Set<ProductField> parseFields(String fields) {
+        try {
+            return ProductField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ErrorResponseException(HttpStatus.BAD_REQUEST, e);
+        }
+    }
+
+    // A cursor fixes the order and filters nothing, and neither it nor count=false pages are
+    // projected, so these parameters along with them are a bad request rather than ignored
+    private static void rejectUnsupported(WebRequest request, List<String> unsupported, String mode) {
+        for (String parameter : unsupported) {
+            if (request.getParameter(parameter) != null) {
+                throw new ErrorResponseException(HttpStatus.BAD_REQUEST,
+                        new IllegalArgumentException("Not supported with " + mode + ": " + parameter));
+            }
+        }
+    }
+
+    // Cursors are opaque to clients, so a malformed one is a bad request
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            return Cursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ErrorResponseException(HttpStatus.BAD_REQUEST, e);
+        }
+    }
+
 }
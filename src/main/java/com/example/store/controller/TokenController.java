@@ -0,0 +1,27 @@
+package com.example.store.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.store.dto.TokenResponse;
+import com.example.store.security.service.TokenService;
+
+/**
+ * Exchanges a login, through HTTP Basic or a session, for a bearer token. Only present when
+ * store.security.token.enabled is set.
+ */
+@RestController
+@ConditionalOnProperty(name = "store.security.token.enabled", havingValue = "true")
+public class TokenController {
+
+    @Autowired
+    private TokenService tokenService;
+
+    @PostMapping("/auth/token")
+    public TokenResponse issue(Authentication authentication) {
+        return new TokenResponse(tokenService.issue(authentication), tokenService.getTtl().toSeconds());
+    }
+}
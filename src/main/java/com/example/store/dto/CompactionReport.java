@@ -0,0 +1,54 @@
+package com.example.store.dto;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a compaction run: products moved to the archive, in how many batches and how
+ * long, counting products deleted before the cutoff.
+ */
+public class CompactionReport {
+
+    private Instant cutoff;
+    private long archived;
+    private int batches;
+    private long elapsedMillis;
+
+    public CompactionReport() {
+    }
+
+    public CompactionReport(Instant cutoff) {
+        this.cutoff = cutoff;
+    }
+
+    // Count a committed batch
+    public void archived(int products) {
+        archived += products;
+        batches++;
+    }
+
+    // Getters and setters
+    public Instant getCutoff() {
+        return cutoff;
+    }
+    public void setCutoff(Instant cutoff) {
+        this.cutoff = cutoff;
+    }
+    public long getArchived() {
+        return archived;
+    }
+    public void setArchived(long archived) {
+        this.archived = archived;
+    }
+    public int getBatches() {
+        return batches;
+    }
+    public void setBatches(int batches) {
+        this.batches = batches;
+    }
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.store.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.example.store.model.Product;
+
+/**
+ * Position in the (name, id) order used by keyset pagination. Clients only see it
+ * as an opaque URL-safe token, so its layout can change without breaking them.
+ */
+public class Cursor {
+
+    // Sorts before any product, names being never blank
+    public static final Cursor START = new Cursor("", new UUID(0L, 0L));
+
+    private static final char SEPARATOR = '\n';
+
+    private final String name;
+    private final UUID id;
+
+    public Cursor(String name, UUID id) {
+        this.name = name;
+        this.id = id;
+    }
+
+    // Position right after the given product
+    public static Cursor after(Product product) {
+        return new Cursor(product.getName(), product.getId());
+    }
+
+    // Empty tokens stand for the first page. Throws IllegalArgumentException for malformed ones.
+    public static Cursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return START;
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = decoded.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new Cursor(decoded.substring(separator + 1), UUID.fromString(decoded.substring(0, separator)));
+    }
+
+    // The Id goes first, as names may contain the separator
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id + String.valueOf(SEPARATOR) + name).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.store.dto;
+
+import java.util.List;
+import org.springframework.data.domain.Slice;
+
+import com.example.store.model.Product;
+
+/**
+ * Keyset counterpart of PaginatedResponse. Instead of page numbers and totals, it carries
+ * the cursor of the next page, null once the last page was reached.
+ */
+public class CursorPaginatedResponse<T> {
+
+    private List<T> content;
+    private int pageSize;
+    private String next;
+
+    // Map slice to CursorPaginatedResponse
+    public static CursorPaginatedResponse<Product> of(Slice<Product> products) {
+
+        CursorPaginatedResponse<Product> response = new CursorPaginatedResponse<>();
+        response.setContent(products.getContent());
+        response.setPageSize(products.getSize());
+        if (products.hasNext()) {
+            List<Product> content = products.getContent();
+            response.setNext(Cursor.after(content.get(content.size() - 1)).encode());
+        }
+
+        return response;
+    }
+
+    // Getters and setters
+    public List<T> getContent() {
+        return content;
+    }
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+    public int getPageSize() {
+        return pageSize;
+    }
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+    public String getNext() {
+        return next;
+    }
+    public void setNext(String next) {
+        this.next = next;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.store.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: row counts, throughput and the errors of rejected rows.
+ * Only the first MAX_ERRORS errors are listed, the rejected count covering them all.
+ */
+public class ImportReport {
+
+    public static final int MAX_ERRORS = 100;
+
+    private long processed;
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<RowError> errors = new ArrayList<>();
+
+    // Count a row read from the upload
+    public void read() {
+        processed++;
+    }
+
+    // Count rows written to the database
+    public void imported(int rows) {
+        imported += rows;
+    }
+
+    // Record a rejected row, by its number in the upload
+    public void reject(long row, String message) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    // Set timing figures once the import is over
+    public void finish(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis == 0 ? processed : processed * 1000.0 / elapsedMillis;
+    }
+
+    // Getters and setters
+    public long getProcessed() {
+        return processed;
+    }
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+    public long getImported() {
+        return imported;
+    }
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+    public long getRejected() {
+        return rejected;
+    }
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+    public List<RowError> getErrors() {
+        return errors;
+    }
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * Error of a single rejected row. Rows are numbered from 1, a CSV header not counting.
+     */
+    public static class RowError {
+
+        private long row;
+        private String message;
+
+        public RowError() {
+        }
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() {
+            return row;
+        }
+        public void setRow(long row) {
+            this.row = row;
+        }
+        public String getMessage() {
+            return message;
+        }
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
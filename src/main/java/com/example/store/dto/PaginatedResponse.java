@@ -3,8 +3,6 @@ package com.example.store.dto;
 import java.util.List;
 import org.springframework.data.domain.Page;
 
-import com.example.store.model.Product;
-
 /**
  * DTO to ensure the consistency of the response not ensured by Page.
  * @see https://docs.spring.io/spring-data/commons/reference/repositories/core-extensions.html#core.web.pageables
@@ -17,10 +15,10 @@ public class PaginatedResponse<T> {
     private long totalElements;
     private int totalPages;
 
-    // Map page to PaginatedResponse
-    public static PaginatedResponse<Product> of(Page<Product> products) {
+    // Map page to PaginatedResponse, of products or of their projections
+    public static <T> PaginatedResponse<T> of(Page<T> products) {
 
-        PaginatedResponse<Product> response = new PaginatedResponse<>();
+        PaginatedResponse<T> response = new PaginatedResponse<>();
         response.setContent(products.getContent());
         response.setPageNumber(products.getNumber());
         response.setPageSize(products.getSize());
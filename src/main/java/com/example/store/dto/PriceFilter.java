@@ -0,0 +1,66 @@
+package com.example.store.dto;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import com.example.store.model.MinorUnits;
+import com.example.store.model.Price;
+
+/**
+ * Price range of GET /products, bound from its currency, minPrice and maxPrice parameters,
+ * both bounds included. Amounts are only compared within a currency, so bounds need one.
+ */
+public class PriceFilter {
+
+    private final Currency currency;
+
+    // Bounds fit the amount column, with no more decimals than stored
+    @PositiveOrZero
+    @Digits(integer = Price.DEFAULT_PRECISION - Price.DEFAULT_SCALE, fraction = Price.DEFAULT_SCALE)
+    private final BigDecimal minPrice;
+
+    @PositiveOrZero
+    @Digits(integer = Price.DEFAULT_PRECISION - Price.DEFAULT_SCALE, fraction = Price.DEFAULT_SCALE)
+    private final BigDecimal maxPrice;
+
+    public PriceFilter(Currency currency, BigDecimal minPrice, BigDecimal maxPrice) {
+        this.currency = currency;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    // None of the parameters given, the listing being unfiltered
+    public boolean isEmpty() {
+        return currency == null && minPrice == null && maxPrice == null;
+    }
+
+    @AssertTrue(message = "currency is required with minPrice or maxPrice")
+    public boolean isCurrencyGiven() {
+        return currency != null || minPrice == null && maxPrice == null;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    // Bounds in minor units, open ends standing for the whole range of amounts
+    public long minUnits() {
+        return minPrice == null ? 0 : MinorUnits.of(minPrice);
+    }
+
+    public long maxUnits() {
+        return maxPrice == null ? Long.MAX_VALUE : MinorUnits.of(maxPrice);
+    }
+}
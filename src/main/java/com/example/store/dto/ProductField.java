@@ -0,0 +1,60 @@
+package com.example.store.dto;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.example.store.model.Product;
+
+/**
+ * Product fields a read can be narrowed to with the fields parameter, e.g. fields=id,name.
+ * Each names the entity attribute to select and reads it from a loaded product.
+ */
+public enum ProductField {
+
+    ID("id", Product::getId),
+    NAME("name", Product::getName),
+    PRICE("price", Product::getPrice);
+
+    private final String property;
+    private final Function<Product, Object> getter;
+
+    ProductField(String property, Function<Product, Object> getter) {
+        this.property = property;
+        this.getter = getter;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    // Fields named in a comma-separated list, in declaration order whatever the list's order.
+    // Throws IllegalArgumentException for unknown or missing names.
+    public static Set<ProductField> parse(String fields) {
+        Set<ProductField> parsed = EnumSet.noneOf(ProductField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.strip();
+            if (!trimmed.isEmpty()) {
+                try {
+                    parsed.add(valueOf(trimmed.toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown product field: " + trimmed);
+                }
+            }
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("No product fields given");
+        }
+        return parsed;
+    }
+
+    // The given fields of a loaded product, serialized as a product with only those fields
+    public static Map<String, Object> of(Product product, Set<ProductField> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        fields.forEach(field -> row.put(field.property, field.getter.apply(product)));
+        return row;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.store.dto;
+
+import java.util.UUID;
+
+/**
+ * A product name completing the prefix typed so far, with the product's Id.
+ */
+public class ProductSuggestion {
+
+    private final UUID id;
+    private final String name;
+
+    public ProductSuggestion(UUID id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
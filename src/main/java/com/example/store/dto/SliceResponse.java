@@ -0,0 +1,56 @@
+package com.example.store.dto;
+
+import java.util.List;
+import org.springframework.data.domain.Slice;
+
+import com.example.store.model.Product;
+
+/**
+ * Count-free variant of PaginatedResponse. It tells whether a next page exists instead of
+ * the totals, sparing the extra COUNT query behind them.
+ */
+public class SliceResponse<T> {
+
+    private List<T> content;
+    private int pageNumber;
+    private int pageSize;
+    private boolean hasNext;
+
+    // Map slice to SliceResponse
+    public static SliceResponse<Product> of(Slice<Product> products) {
+
+        SliceResponse<Product> response = new SliceResponse<>();
+        response.setContent(products.getContent());
+        response.setPageNumber(products.getNumber());
+        response.setPageSize(products.getSize());
+        response.setHasNext(products.hasNext());
+
+        return response;
+    }
+
+    // Getters and setters
+    public List<T> getContent() {
+        return content;
+    }
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+    public int getPageNumber() {
+        return pageNumber;
+    }
+    public void setPageNumber(int pageNumber) {
+        this.pageNumber = pageNumber;
+    }
+    public int getPageSize() {
+        return pageSize;
+    }
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+    public boolean isHasNext() {
+        return hasNext;
+    }
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
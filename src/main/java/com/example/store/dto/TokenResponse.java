@@ -0,0 +1,28 @@
+package com.example.store.dto;
+
+/**
+ * Bearer token issued by POST /auth/token, with its lifetime in seconds.
+ */
+public class TokenResponse {
+
+    private final String token;
+    private final String tokenType = "Bearer";
+    private final long expiresIn;
+
+    public TokenResponse(String token, long expiresIn) {
+        this.token = token;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+}
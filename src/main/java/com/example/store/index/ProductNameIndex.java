@@ -0,0 +1,275 @@
+package com.example.store.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.store.dto.ProductSuggestion;
+import com.example.store.repository.ProductNameView;
+
+/**
+ * In-memory trigram inverted index over product names. It narrows a name search down to
+ * candidate Ids, which the repository then checks with the regular LIKE. Writes come with
+ * the product version and older ones than the version indexed are ignored, so updates
+ * applied out of order, as after-commit hooks of concurrent transactions can be, never
+ * leave an outdated name behind. Between a commit and its hook, the index still has the
+ * previous name, and a search may miss the product for that long.
+ *
+ * Next to it, a sorted set of lower-cased names and of their tails from each word on answers
+ * prefix lookups for autocompletion, as a range scan from the prefix. Tails are offsets into
+ * the one lower-cased name, not copies of it, so a name takes memory linear in its length.
+ *
+ * Reads are lock-free. Writes are serialized, and the ones arriving while a full rebuild
+ * is running are journaled and replayed on the new index before it is swapped in.
+ */
+@Component
+public class ProductNameIndex {
+
+    public static final int GRAM_SIZE = 3;
+    // Sorts before any other Id, for range scans starting at a prefix
+    private static final UUID FIRST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    public static final int DEFAULT_MAX_CANDIDATES = 1000;
+    // Version recorded for removed products, whose Ids can't be used again
+    private static final long REMOVED = Long.MAX_VALUE;
+
+    // Above this many candidates the index is not selective enough to be worth an IN list
+    private final int maxCandidates;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile State state = new State();
+    private volatile boolean ready;
+    // Not null while a rebuild is running, guarded by writeLock
+    private List<Entry> journal;
+
+    public ProductNameIndex(@Value("${store.search.index.max-candidates:" + DEFAULT_MAX_CANDIDATES + "}") int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+
+    // Ids of the products whose name may contain the search term. Empty when the index
+    // can't help (not built yet, term too short or not selective), so the caller falls back to a scan.
+    // Terms with LIKE wildcards or escapes match more than their own characters, so they're left to the scan.
+    public Optional<Set<UUID>> candidates(String searchTerm) {
+        if (!ready || searchTerm == null || searchTerm.length() < GRAM_SIZE || hasLikeMetacharacters(searchTerm)) {
+            return Optional.empty();
+        }
+        State current = state;
+        List<Set<UUID>> postings = new ArrayList<>();
+        for (String gram : grams(normalize(searchTerm))) {
+            Set<UUID> ids = current.postings.get(gram);
+            if (ids == null) {
+                return Optional.of(Collections.emptySet());
+            }
+            postings.add(ids);
+        }
+        // Intersect starting from the rarest gram
+        postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        if (postings.get(0).size() > maxCandidates) {
+            return Optional.empty();
+        }
+        Set<UUID> result = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+            result.retainAll(postings.get(i));
+        }
+        return Optional.of(result);
+    }
+
+    // Up to limit products whose name, or a word of it, starts with the prefix, ignoring case.
+    // Ordered by the matching text, then by Id. Empty until the index is built.
+    public Optional<List<ProductSuggestion>> suggest(String prefix, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        String key = normalize(prefix.strip());
+        Map<UUID, ProductSuggestion> found = new LinkedHashMap<>();
+        for (Suffix suffix : state.suffixes.tailSet(new Suffix(key, 0, FIRST_ID, null))) {
+            if (found.size() == limit || !suffix.text().startsWith(key, suffix.offset())) {
+                break;
+            }
+            // A name with several words starting alike is listed once
+            found.putIfAbsent(suffix.id(), new ProductSuggestion(suffix.id(), suffix.name()));
+        }
+        return Optional.of(new ArrayList<>(found.values()));
+    }
+
+    // Add a product or replace its previously indexed name, unless a later version is indexed
+    public void put(UUID id, String name, long version) {
+        write(new Entry(id, name, version));
+    }
+
+    public void remove(UUID id) {
+        write(new Entry(id, null, REMOVED));
+    }
+
+    // Replace the whole index with one built in parallel from the loaded products. Readers
+    // keep using the current index until the new one is complete.
+    public void rebuild(Supplier<? extends Collection<? extends ProductNameView>> loader) {
+        writeLock.lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+
+        State rebuilt = new State();
+        boolean built = false;
+        try {
+            Collection<? extends ProductNameView> products = loader.get();
+            rebuilt.versions.putAll(products.parallelStream()
+                    .collect(Collectors.toConcurrentMap(ProductNameView::getId, ProductNameView::getVersion)));
+            rebuilt.names.putAll(products.parallelStream()
+                    .filter(product -> product.getName() != null)
+                    .collect(Collectors.toConcurrentMap(ProductNameView::getId, product -> normalize(product.getName()))));
+            rebuilt.postings.putAll(rebuilt.names.entrySet().parallelStream()
+                    .flatMap(entry -> grams(entry.getValue()).stream().map(gram -> Map.entry(gram, entry.getKey())))
+                    .collect(Collectors.groupingByConcurrent(Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue,
+                            Collectors.toCollection(ConcurrentHashMap::newKeySet)))));
+            rebuilt.suffixes.addAll(products.parallelStream()
+                    .filter(product -> product.getName() != null)
+                    .flatMap(product -> suffixes(product.getId(), product.getName()).stream())
+                    .toList());
+            built = true;
+        } finally {
+            writeLock.lock();
+            try {
+                // On failure the current index stays in place, the journaled writes being already applied to it.
+                // Those older than the loaded rows are skipped by version.
+                if (built) {
+                    journal.forEach(rebuilt::apply);
+                    state = rebuilt;
+                    ready = true;
+                }
+                journal = null;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return state.names.size();
+    }
+
+    private void write(Entry entry) {
+        writeLock.lock();
+        try {
+            state.apply(entry);
+            if (journal != null) {
+                journal.add(entry);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static boolean hasLikeMetacharacters(String text) {
+        return text.indexOf('%') >= 0 || text.indexOf('_') >= 0 || text.indexOf('\\') >= 0;
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    // Distinct n-grams of an already normalized text
+    static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    // Lower-cased tails of a name from the start of each of its words, blank-separated
+    static List<Suffix> suffixes(UUID id, String name) {
+        String text = normalize(name);
+        List<Suffix> suffixes = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i)) && (i == 0 || Character.isWhitespace(text.charAt(i - 1)))) {
+                suffixes.add(new Suffix(text, i, id, name));
+            }
+        }
+        return suffixes;
+    }
+
+    // A pending change, the name being null for removals
+    private record Entry(UUID id, String name, long version) {
+    }
+
+    // A lower-cased name from the offset of one of its words on, ordered by that tail then by
+    // Id. The tail is compared in place. The name as written is kept for display, and left out
+    // of comparisons.
+    record Suffix(String text, int offset, UUID id, String name) implements Comparable<Suffix> {
+
+        @Override
+        public int compareTo(Suffix other) {
+            int length = text.length() - offset;
+            int otherLength = other.text().length() - other.offset();
+            for (int i = 0; i < Math.min(length, otherLength); i++) {
+                int byChar = Character.compare(text.charAt(offset + i), other.text().charAt(other.offset() + i));
+                if (byChar != 0) {
+                    return byChar;
+                }
+            }
+            int byLength = Integer.compare(length, otherLength);
+            return byLength != 0 ? byLength : id.compareTo(other.id());
+        }
+    }
+
+    private static class State {
+
+        private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>();
+        private final Map<UUID, String> names = new ConcurrentHashMap<>();
+        private final NavigableSet<Suffix> suffixes = new ConcurrentSkipListSet<>();
+        // Version of the indexed name of each product, removals included. Only used under writeLock.
+        private final Map<UUID, Long> versions = new ConcurrentHashMap<>();
+
+        // Only called under writeLock
+        private void apply(Entry entry) {
+            Long indexed = versions.get(entry.id());
+            if (indexed != null && indexed >= entry.version()) {
+                return;
+            }
+            versions.put(entry.id(), entry.version());
+            String previous = entry.name() == null ? names.remove(entry.id()) : names.put(entry.id(), normalize(entry.name()));
+            if (previous != null) {
+                // Found again from the lower-cased name, the set comparing only text and Id
+                suffixes.removeAll(suffixes(entry.id(), previous));
+                for (String gram : grams(previous)) {
+                    Set<UUID> ids = postings.get(gram);
+                    if (ids != null) {
+                        ids.remove(entry.id());
+                        if (ids.isEmpty()) {
+                            postings.remove(gram);
+                        }
+                    }
+                }
+            }
+            if (entry.name() != null) {
+                suffixes.addAll(suffixes(entry.id(), entry.name()));
+                for (String gram : grams(normalize(entry.name()))) {
+                    postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(entry.id());
+                }
+            }
+        }
+    }
+}
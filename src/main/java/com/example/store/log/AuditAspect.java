@@ -1,45 +1,43 @@
 package com.example.store.log;
 
+import java.time.Instant;
+
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
-import java.util.Arrays;
 
 /**
- * Logs methods adorned with @Auditable in a dedicated AUDIT logger.
+ * Audits methods adorned with @Auditable. The call is captured as an AuditEvent and handed
+ * to the AuditQueue, its formatting and the file write happening off the request thread.
  */
 @Aspect
 @Component
 public class AuditAspect {
 
-    private static final Logger auditLogger = LoggerFactory.getLogger("AUDIT");
+    @Autowired
+    private AuditQueue auditQueue;
 
     @AfterReturning("@annotation(auditable)")
     public void logAudit(JoinPoint joinPoint, Auditable auditable) {
 
-        // Action author
+        // Action author, resolved here as the security context is bound to the request thread
         String username = getCurrentUsername();
 
-        // Determine method and its params used in the call
-        String methodName = joinPoint.getSignature().getName();
-        Object[] args = joinPoint.getArgs();
-        String params = Arrays.toString(args);
-
-        // Elements to log
-        auditLogger.info("[{}][{}]: [{}]", methodName, username, params);
+        // Method and its params used in the call, formatted later by the audit writer
+        auditQueue.publish(AuditEvent.capture(Instant.now(), joinPoint.getSignature().getName(), username, joinPoint.getArgs()));
     }
 
-    // Retrieve user from SecurityContext
+    // Retrieve user from SecurityContext, by name as bearer tokens authenticate without UserDetails
     private String getCurrentUsername() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        if (principal instanceof UserDetails) {
-            return ((UserDetails) principal).getUsername();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return "anonymous";
         }
-        return "anonymous";
+        return authentication.getName();
     }
-}
\ No newline at end of file
+}
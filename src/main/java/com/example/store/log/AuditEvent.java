@@ -0,0 +1,106 @@
+package com.example.store.log;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import com.example.store.model.Identifiable;
+
+/**
+ * An audited call, captured on the request thread and formatted later by the audit writer,
+ * so the arguments' toString() cost stays off the request. Arguments are held by reference,
+ * except collections of entities, which capture() narrows down to their Ids.
+ */
+public record AuditEvent(Instant timestamp, String method, String username, Object[] args) {
+
+    // Event of a call, holding on to the Ids of the entities it was given in bulk rather than
+    // to the entities, which may be thousands while the event waits in the queue
+    public static AuditEvent capture(Instant timestamp, String method, String username, Object[] args) {
+        Object[] captured = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            captured[i] = args[i] instanceof Collection<?> items && isEntities(items)
+                    ? new Items(items.stream().map(item -> ((Identifiable<?>) item).getId()).toList())
+                    : args[i];
+        }
+        return new AuditEvent(timestamp, method, username, captured);
+    }
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    // Audit log line, in the layout of the former logback appender
+    public String format() {
+        return String.format("%s INFO  AUDIT - [%s][%s]: [%s]", TIMESTAMP_FORMAT.format(timestamp), method, username, params());
+    }
+
+    // Arguments of the call, as logged
+    public String params() {
+        return Arrays.stream(args).map(AuditEvent::describe).collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    // Elements of the collections held, which weigh on the audit queue
+    public int heldItems() {
+        int items = 0;
+        for (Object arg : args) {
+            if (arg instanceof Collection<?> collection) {
+                items += collection.size();
+            } else if (arg instanceof Items captured) {
+                items += captured.ids().size();
+            }
+        }
+        return items;
+    }
+
+    // Products concerned by the call: UUID arguments and the Ids of products passed alone or in collections
+    public List<UUID> productIds() {
+        Set<UUID> ids = new LinkedHashSet<>();
+        for (Object arg : args) {
+            if (arg instanceof Collection<?> items) {
+                items.forEach(item -> addProductId(ids, item));
+            } else if (arg instanceof Items captured) {
+                captured.ids().forEach(id -> addProductId(ids, id));
+            } else {
+                addProductId(ids, arg);
+            }
+        }
+        return List.copyOf(ids);
+    }
+
+    private static void addProductId(Set<UUID> ids, Object arg) {
+        if (arg instanceof UUID id) {
+            ids.add(id);
+        } else if (arg instanceof Identifiable<?> entity && entity.getId() instanceof UUID id) {
+            ids.add(id);
+        }
+    }
+
+    // Collections of entities shrink to their size and Ids, anything else is logged as is
+    private static String describe(Object arg) {
+        if (arg instanceof Collection<?> items && isEntities(items)) {
+            return describeIds(items.stream().map(item -> ((Identifiable<?>) item).getId()).toList());
+        }
+        if (arg instanceof Items captured) {
+            return describeIds(captured.ids());
+        }
+        return String.valueOf(arg);
+    }
+
+    private static boolean isEntities(Collection<?> items) {
+        return !items.isEmpty() && items.iterator().next() instanceof Identifiable;
+    }
+
+    private static String describeIds(List<?> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(", ", ids.size() + " items: [", "]"));
+    }
+
+    // Ids of a collection of entities, standing in for it
+    record Items(List<?> ids) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.store.log;
+
+import java.util.UUID;
+
+/**
+ * Index of the records of one audit segment, giving their offsets in the segment file.
+ * Offsets come in ascending order of time, so the newest records are the last ones.
+ */
+interface AuditIndex {
+
+    int size();
+
+    long minTimestamp();
+
+    long maxTimestamp();
+
+    int[] byProduct(UUID productId);
+
+    int[] byUsername(String username);
+
+    // Records within [from, to], in epoch millis
+    int[] byTime(long from, long to);
+}
@@ -0,0 +1,252 @@
+package com.example.store.log;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bounded, lock-free queue of audit events, drained by a background thread that formats
+ * them and appends them to the audit file in batches, flushing once per batch. Request
+ * threads only pay for the enqueue.
+ *
+ * The queue is bounded by events and by the collection elements they hold, so that large
+ * batches can't fill the heap while waiting. An event alone in the queue always fits.
+ * When the queue is full, the overflow policy decides: BLOCK waits for room, DROP discards
+ * the event and counts it, SPILL writes it to the file right away on the calling thread.
+ * Whatever is still queued is written on shutdown.
+ *
+ * Each batch is also appended to the AuditStore, for the indexed lookups of GET /audit.
+ */
+@Component
+public class AuditQueue {
+
+    public enum OverflowPolicy {
+        BLOCK, DROP, SPILL
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditQueue.class);
+
+    // How long the writer sleeps on an empty queue if not woken up, and how long a
+    // blocked producer waits before checking for room again
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long SHUTDOWN_MILLIS = 5000;
+
+    private final Queue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() is O(n), so the bound is kept on a separate counter
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong heldItems = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+
+    private final int capacity;
+    private final long itemCapacity;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+
+    // Shared by the writer thread and spilling producers. Null once closed.
+    private final ReentrantLock fileLock = new ReentrantLock();
+    private Writer out;
+
+    private volatile Thread writer;
+    private volatile boolean closed;
+
+    // Optional, for the queue to be usable on its own in tests
+    @Autowired(required = false)
+    private AuditStore auditStore;
+
+    public AuditQueue(
+            @Value("${store.audit.file:audit.log}") String file,
+            @Value("${store.audit.queue-capacity:10000}") int capacity,
+            @Value("${store.audit.queue-item-capacity:1000000}") long itemCapacity,
+            @Value("${store.audit.batch-size:256}") int batchSize,
+            @Value("${store.audit.overflow:BLOCK}") OverflowPolicy overflowPolicy) throws IOException {
+        this.capacity = Math.max(1, capacity);
+        this.itemCapacity = Math.max(1, itemCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.overflowPolicy = overflowPolicy;
+        this.out = Files.newBufferedWriter(Path.of(file), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @PostConstruct
+    public void start() {
+        Thread thread = new Thread(this::drainLoop, "audit-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    // Queue an event, applying the overflow policy if the queue is full
+    public void publish(AuditEvent event) {
+        while (true) {
+            // Nothing drains the queue after close()
+            if (closed) {
+                write(List.of(event));
+                return;
+            }
+            int current = size.get();
+            if (current < capacity) {
+                if (!size.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                int items = event.heldItems();
+                long held = heldItems.addAndGet(items);
+                if (held <= itemCapacity || held == items) {
+                    queue.offer(event);
+                    Thread thread = writer;
+                    if (current == 0 && thread != null) {
+                        LockSupport.unpark(thread);
+                    }
+                    return;
+                }
+                heldItems.addAndGet(-items);
+                size.decrementAndGet();
+            }
+            switch (overflowPolicy) {
+                case DROP -> {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                case SPILL -> {
+                    spilled.incrementAndGet();
+                    write(List.of(event));
+                    return;
+                }
+                case BLOCK -> {
+                    // Before start(), there is no writer to wait for
+                    if (writer == null) {
+                        write(List.of(event));
+                        return;
+                    }
+                    LockSupport.parkNanos(this, BLOCK_NANOS);
+                }
+            }
+        }
+    }
+
+    // Stop the writer, then write what is left and close the file
+    @PreDestroy
+    public void close() {
+        closed = true;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(SHUTDOWN_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (drainTo(batch) > 0) {
+            write(batch);
+            batch.clear();
+        }
+        fileLock.lock();
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        } catch (IOException e) {
+            logger.error("Failed to close audit file: {}", e.getMessage());
+        } finally {
+            fileLock.unlock();
+        }
+        if (dropped.get() > 0) {
+            logger.warn("{} audit events were dropped on overflow", dropped.get());
+        }
+    }
+
+    // Events waiting to be written
+    public int pending() {
+        return size.get();
+    }
+
+    public long droppedEvents() {
+        return dropped.get();
+    }
+
+    public long spilledEvents() {
+        return spilled.get();
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (!closed) {
+            if (drainTo(batch) == 0) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private int drainTo(List<AuditEvent> batch) {
+        AuditEvent event;
+        while (batch.size() < batchSize && (event = queue.poll()) != null) {
+            size.decrementAndGet();
+            heldItems.addAndGet(-event.heldItems());
+            batch.add(event);
+        }
+        return batch.size();
+    }
+
+    // Format outside the lock, then append and flush once, and pass the batch to the store.
+    // An event failing to format is logged as such rather than lost. Events arriving after
+    // close are dropped, and so is a batch failing to write, whatever the failure, for the
+    // writer thread to keep draining the queue.
+    private void write(List<AuditEvent> events) {
+        List<String> lines = new ArrayList<>(events.size());
+        for (AuditEvent event : events) {
+            try {
+                lines.add(event.format());
+            } catch (RuntimeException e) {
+                lines.add(String.format("[%s][%s]: unformattable arguments (%s)", event.method(), event.username(), e));
+            }
+        }
+        fileLock.lock();
+        try {
+            if (out == null) {
+                dropped.addAndGet(lines.size());
+                return;
+            }
+            for (String line : lines) {
+                out.write(line);
+                out.write(System.lineSeparator());
+            }
+            out.flush();
+            if (auditStore != null) {
+                auditStore.append(events);
+            }
+        } catch (IOException | RuntimeException e) {
+            dropped.addAndGet(lines.size());
+            logger.error("Failed to write {} audit events", lines.size(), e);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+}
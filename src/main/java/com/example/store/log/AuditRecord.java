@@ -0,0 +1,76 @@
+package com.example.store.log;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An entry of the audit store, as returned by GET /audit. Stored length-prefixed: int length
+ * of the rest, long epoch millis, method, username, product Ids as pairs of longs, then the
+ * arguments as logged. Strings are UTF-8, prefixed by their int length.
+ */
+public record AuditRecord(Instant timestamp, String method, String username, List<UUID> productIds, String params) {
+
+    static AuditRecord of(AuditEvent event) {
+        return new AuditRecord(Instant.ofEpochMilli(event.timestamp().toEpochMilli()), event.method(), event.username(),
+                event.productIds(), event.params());
+    }
+
+    byte[] encode() {
+        byte[] methodBytes = method.getBytes(StandardCharsets.UTF_8);
+        byte[] usernameBytes = username.getBytes(StandardCharsets.UTF_8);
+        byte[] paramsBytes = params.getBytes(StandardCharsets.UTF_8);
+        int length = Long.BYTES + 4 * Integer.BYTES + methodBytes.length + usernameBytes.length
+                + productIds.size() * 2 * Long.BYTES + paramsBytes.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + length);
+        buffer.putInt(length).putLong(timestamp.toEpochMilli());
+        buffer.putInt(methodBytes.length).put(methodBytes);
+        buffer.putInt(usernameBytes.length).put(usernameBytes);
+        buffer.putInt(productIds.size());
+        for (UUID id : productIds) {
+            buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        }
+        buffer.putInt(paramsBytes.length).put(paramsBytes);
+        return buffer.array();
+    }
+
+    // Decode the record at an offset, with absolute reads so that a shared buffer can be read concurrently
+    static AuditRecord decode(ByteBuffer buffer, int offset) {
+        int end = offset + Integer.BYTES + buffer.getInt(offset);
+        if (end > buffer.limit() || end < offset) {
+            throw new IllegalStateException("Truncated audit record at " + offset);
+        }
+        int position = offset + Integer.BYTES;
+        long timestamp = buffer.getLong(position);
+        position += Long.BYTES;
+        String method = readString(buffer, position, end);
+        position += Integer.BYTES + buffer.getInt(position);
+        String username = readString(buffer, position, end);
+        position += Integer.BYTES + buffer.getInt(position);
+        int count = buffer.getInt(position);
+        position += Integer.BYTES;
+        if (count < 0 || position + count * 2L * Long.BYTES > end) {
+            throw new IllegalStateException("Corrupt audit record at " + offset);
+        }
+        List<UUID> productIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++, position += 2 * Long.BYTES) {
+            productIds.add(new UUID(buffer.getLong(position), buffer.getLong(position + Long.BYTES)));
+        }
+        String params = readString(buffer, position, end);
+        return new AuditRecord(Instant.ofEpochMilli(timestamp), method, username, List.copyOf(productIds), params);
+    }
+
+    private static String readString(ByteBuffer buffer, int position, int end) {
+        int length = buffer.getInt(position);
+        if (length < 0 || position + Integer.BYTES + length > end) {
+            throw new IllegalStateException("Corrupt audit record string at " + position);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.store.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One append-only file of the audit store. The active segment is appended to and indexed
+ * in memory. Once sealed, its index is written to a sidecar file and both files are read
+ * through memory mapping only. Not thread-safe, AuditStore guards it.
+ */
+class AuditSegment {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditSegment.class);
+
+    static final String DATA_SUFFIX = ".seg";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private final int number;
+    private final Path dataFile;
+    private final Path indexFile;
+
+    // While active
+    private FileChannel channel;
+    private MemoryAuditIndex memoryIndex;
+    // Once sealed
+    private MappedByteBuffer mappedData;
+
+    private AuditIndex index;
+    private int size;
+
+    private AuditSegment(Path dir, int number) {
+        this.number = number;
+        this.dataFile = dir.resolve(String.format("audit-%06d%s", number, DATA_SUFFIX));
+        this.indexFile = dir.resolve(String.format("audit-%06d%s", number, INDEX_SUFFIX));
+    }
+
+    // Open or create the segment to append to. Its index is rebuilt from the records, and a
+    // record left incomplete by a crash is cut off.
+    static AuditSegment active(Path dir, int number) throws IOException {
+        AuditSegment segment = new AuditSegment(dir, number);
+        segment.channel = FileChannel.open(segment.dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment.memoryIndex = segment.scan(segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.channel.size()));
+        segment.index = segment.memoryIndex;
+        segment.channel.truncate(segment.size);
+        segment.channel.position(segment.size);
+        Files.deleteIfExists(segment.indexFile);
+        return segment;
+    }
+
+    // Open a sealed segment through its sidecar, rebuilding the sidecar if missing or damaged
+    static AuditSegment sealed(Path dir, int number) throws IOException {
+        AuditSegment segment = new AuditSegment(dir, number);
+        try (FileChannel data = FileChannel.open(segment.dataFile, StandardOpenOption.READ)) {
+            segment.mappedData = data.map(FileChannel.MapMode.READ_ONLY, 0, data.size());
+        }
+        segment.size = segment.mappedData.limit();
+        try {
+            segment.index = MappedAuditIndex.open(segment.indexFile);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Rebuilding index of audit segment {}: {}", number, e.getMessage());
+            segment.scan(segment.mappedData).writeTo(segment.indexFile);
+            segment.index = MappedAuditIndex.open(segment.indexFile);
+        }
+        return segment;
+    }
+
+    int number() {
+        return number;
+    }
+
+    int size() {
+        return size;
+    }
+
+    AuditIndex index() {
+        return index;
+    }
+
+    // Append encoded records with a single gathering write
+    void append(List<AuditRecord> records, List<byte[]> encoded) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[encoded.size()];
+        int offset = size;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(encoded.get(i));
+            memoryIndex.add(records.get(i), offset);
+            offset += encoded.get(i).length;
+        }
+        long remaining = offset - size;
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+        size = offset;
+    }
+
+    // Write the sidecar and switch to mapped reads
+    void seal() throws IOException {
+        memoryIndex.writeTo(indexFile);
+        channel.close();
+        channel = null;
+        memoryIndex = null;
+        try (FileChannel data = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            mappedData = data.map(FileChannel.MapMode.READ_ONLY, 0, data.size());
+        }
+        index = MappedAuditIndex.open(indexFile);
+    }
+
+    // Records are read from here at the offsets given by the index. The active segment is
+    // mapped up to its current size.
+    ByteBuffer data() throws IOException {
+        return mappedData != null ? mappedData : channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // Index the complete records of a data file, setting the segment size to their end
+    private MemoryAuditIndex scan(ByteBuffer data) {
+        MemoryAuditIndex scanned = new MemoryAuditIndex();
+        int offset = 0;
+        while (offset + Integer.BYTES <= data.limit()) {
+            try {
+                AuditRecord record = AuditRecord.decode(data, offset);
+                scanned.add(record, offset);
+                offset += Integer.BYTES + data.getInt(offset);
+            } catch (RuntimeException e) {
+                logger.warn("Audit segment {} cut off at {}: {}", number, offset, e.getMessage());
+                break;
+            }
+        }
+        size = offset;
+        return scanned;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.store.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Queryable audit trail, made of append-only binary segment files rolled by size. Each
+ * sealed segment has a sidecar index by product Id, username and time, so that queries
+ * only decode the records they return. Fed in batches by the AuditQueue writer.
+ */
+@Component
+public class AuditStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditStore.class);
+
+    private final Path dir;
+    private final long segmentSize;
+    // Appends take the write lock, queries the read lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Sealed segments, oldest first
+    private final List<AuditSegment> sealed = new ArrayList<>();
+    private AuditSegment active;
+
+    public AuditStore(
+            @Value("${store.audit.dir:audit}") String dir,
+            @Value("${store.audit.segment-size:64MB}") DataSize segmentSize) throws IOException {
+        this.dir = Path.of(dir);
+        // Offsets are ints and segments are mapped whole
+        this.segmentSize = Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+        Files.createDirectories(this.dir);
+
+        List<Integer> numbers;
+        try (Stream<Path> files = Files.list(this.dir)) {
+            numbers = files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith("audit-") && name.endsWith(AuditSegment.DATA_SUFFIX))
+                    .map(name -> Integer.valueOf(name.substring("audit-".length(), name.length() - AuditSegment.DATA_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+        for (int i = 0; i < numbers.size() - 1; i++) {
+            sealed.add(AuditSegment.sealed(this.dir, numbers.get(i)));
+        }
+        active = AuditSegment.active(this.dir, numbers.isEmpty() ? 1 : numbers.get(numbers.size() - 1));
+    }
+
+    // Store a batch of events, rolling over to a new segment when the active one is full
+    public void append(List<AuditEvent> events) {
+        List<AuditRecord> records = new ArrayList<>(events.size());
+        List<byte[]> encoded = new ArrayList<>(events.size());
+        for (AuditEvent event : events) {
+            AuditRecord record;
+            try {
+                record = AuditRecord.of(event);
+            } catch (RuntimeException e) {
+                record = new AuditRecord(event.timestamp(), event.method(), event.username(), List.of(),
+                        "unformattable arguments (" + e + ")");
+            }
+            records.add(record);
+            encoded.add(record.encode());
+        }
+
+        lock.writeLock().lock();
+        try {
+            int from = 0;
+            long pending = 0;
+            for (int i = 0; i < encoded.size(); i++) {
+                int length = encoded.get(i).length;
+                // A record larger than a segment still gets one of its own
+                if (active.size() + pending > 0 && active.size() + pending + length > segmentSize) {
+                    active.append(records.subList(from, i), encoded.subList(from, i));
+                    roll();
+                    from = i;
+                    pending = 0;
+                }
+                pending += length;
+            }
+            active.append(records.subList(from, records.size()), encoded.subList(from, encoded.size()));
+        } catch (IOException e) {
+            logger.error("Failed to store {} audit events: {}", events.size(), e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Audit records matching all the given filters, newest first. Null filters match anything.
+    // Segments are searched from the newest, stopping once the limit is reached.
+    public List<AuditRecord> find(UUID productId, String username, Instant from, Instant to, int limit) {
+        long fromMillis = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        long toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+        List<AuditRecord> results = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            List<AuditSegment> segments = new ArrayList<>(sealed);
+            segments.add(active);
+            for (int s = segments.size() - 1; s >= 0 && results.size() < limit; s--) {
+                AuditSegment segment = segments.get(s);
+                AuditIndex index = segment.index();
+                if (index.size() == 0 || index.maxTimestamp() < fromMillis || index.minTimestamp() > toMillis) {
+                    continue;
+                }
+                int[] offsets = productId != null ? index.byProduct(productId)
+                        : username != null ? index.byUsername(username)
+                        : index.byTime(fromMillis, toMillis);
+                ByteBuffer data = segment.data();
+                List<AuditRecord> found = new ArrayList<>();
+                // Offsets come oldest first
+                for (int i = offsets.length - 1; i >= 0 && found.size() < limit; i--) {
+                    AuditRecord record = AuditRecord.decode(data, offsets[i]);
+                    long timestamp = record.timestamp().toEpochMilli();
+                    if (timestamp >= fromMillis && timestamp <= toMillis
+                            && (username == null || username.equals(record.username()))) {
+                        found.add(record);
+                    }
+                }
+                results.addAll(found);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read the audit store", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return results.stream()
+                .sorted(Comparator.comparing(AuditRecord::timestamp).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            active.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        active.seal();
+        sealed.add(active);
+        active = AuditSegment.active(dir, active.number() + 1);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.store.log;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Sidecar index of a sealed audit segment, memory-mapped and searched in place. Layout:
+ * a header (magic, version, min and max timestamps, entry counts), then time entries
+ * (timestamp, offset) sorted by time, product entries (Id as two longs, offset) sorted by
+ * Id, and a table of usernames, each followed by the offsets of its records.
+ */
+class MappedAuditIndex implements AuditIndex {
+
+    static final int MAGIC = 0x41554458;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 2 * Integer.BYTES + 2 * Long.BYTES + 3 * Integer.BYTES;
+    static final int TIME_ENTRY_BYTES = Long.BYTES + Integer.BYTES;
+    static final int PRODUCT_ENTRY_BYTES = 2 * Long.BYTES + Integer.BYTES;
+
+    private final MappedByteBuffer buffer;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final int timeCount;
+    private final int productCount;
+    private final int userCount;
+    private final int productsStart;
+    private final int usernamesStart;
+
+    private MappedAuditIndex(MappedByteBuffer buffer) {
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IllegalStateException("Not an audit index");
+        }
+        this.buffer = buffer;
+        this.minTimestamp = buffer.getLong(2 * Integer.BYTES);
+        this.maxTimestamp = buffer.getLong(2 * Integer.BYTES + Long.BYTES);
+        this.timeCount = buffer.getInt(2 * Integer.BYTES + 2 * Long.BYTES);
+        this.productCount = buffer.getInt(3 * Integer.BYTES + 2 * Long.BYTES);
+        this.userCount = buffer.getInt(4 * Integer.BYTES + 2 * Long.BYTES);
+        this.productsStart = HEADER_BYTES + timeCount * TIME_ENTRY_BYTES;
+        this.usernamesStart = productsStart + productCount * PRODUCT_ENTRY_BYTES;
+        if (timeCount < 0 || productCount < 0 || usernamesStart > buffer.limit()) {
+            throw new IllegalStateException("Truncated audit index");
+        }
+    }
+
+    static MappedAuditIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new MappedAuditIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public int size() {
+        return timeCount;
+    }
+
+    @Override
+    public long minTimestamp() {
+        return minTimestamp;
+    }
+
+    @Override
+    public long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    @Override
+    public int[] byProduct(UUID productId) {
+        long most = productId.getMostSignificantBits();
+        long least = productId.getLeastSignificantBits();
+        // Lower bound of the Id, comparing as UUID.compareTo() does
+        int low = 0;
+        int high = productCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int position = productsStart + middle * PRODUCT_ENTRY_BYTES;
+            int compared = Long.compare(buffer.getLong(position), most);
+            if (compared == 0) {
+                compared = Long.compare(buffer.getLong(position + Long.BYTES), least);
+            }
+            if (compared < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int end = low;
+        while (end < productCount) {
+            int position = productsStart + end * PRODUCT_ENTRY_BYTES;
+            if (buffer.getLong(position) != most || buffer.getLong(position + Long.BYTES) != least) {
+                break;
+            }
+            end++;
+        }
+        int[] offsets = new int[end - low];
+        for (int i = low; i < end; i++) {
+            offsets[i - low] = buffer.getInt(productsStart + i * PRODUCT_ENTRY_BYTES + 2 * Long.BYTES);
+        }
+        return offsets;
+    }
+
+    // Usernames are few, so their table is scanned
+    @Override
+    public int[] byUsername(String username) {
+        byte[] wanted = username.getBytes(StandardCharsets.UTF_8);
+        int position = usernamesStart;
+        for (int i = 0; i < userCount; i++) {
+            int length = buffer.getInt(position);
+            byte[] bytes = new byte[length];
+            buffer.get(position + Integer.BYTES, bytes);
+            position += Integer.BYTES + length;
+            int count = buffer.getInt(position);
+            position += Integer.BYTES;
+            if (Arrays.equals(bytes, wanted)) {
+                int[] offsets = new int[count];
+                for (int j = 0; j < count; j++) {
+                    offsets[j] = buffer.getInt(position + j * Integer.BYTES);
+                }
+                return offsets;
+            }
+            position += count * Integer.BYTES;
+        }
+        return new int[0];
+    }
+
+    @Override
+    public int[] byTime(long from, long to) {
+        // Lower bound of from
+        int low = 0;
+        int high = timeCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getLong(HEADER_BYTES + middle * TIME_ENTRY_BYTES) < from) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int end = low;
+        while (end < timeCount && buffer.getLong(HEADER_BYTES + end * TIME_ENTRY_BYTES) <= to) {
+            end++;
+        }
+        int[] offsets = new int[end - low];
+        for (int i = low; i < end; i++) {
+            offsets[i - low] = buffer.getInt(HEADER_BYTES + i * TIME_ENTRY_BYTES + Long.BYTES);
+        }
+        return offsets;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.store.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Index of the active audit segment, kept in memory as records are appended, and written
+ * as the segment's sidecar file once the segment is sealed. See MappedAuditIndex for the layout.
+ */
+class MemoryAuditIndex implements AuditIndex {
+
+    private final List<long[]> times = new ArrayList<>();
+    private final Map<UUID, List<Integer>> products = new HashMap<>();
+    private final Map<String, List<Integer>> usernames = new HashMap<>();
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+
+    void add(AuditRecord record, int offset) {
+        long timestamp = record.timestamp().toEpochMilli();
+        times.add(new long[] { timestamp, offset });
+        record.productIds().forEach(id -> products.computeIfAbsent(id, key -> new ArrayList<>()).add(offset));
+        usernames.computeIfAbsent(record.username(), key -> new ArrayList<>()).add(offset);
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+    }
+
+    @Override
+    public int size() {
+        return times.size();
+    }
+
+    @Override
+    public long minTimestamp() {
+        return minTimestamp;
+    }
+
+    @Override
+    public long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    @Override
+    public int[] byProduct(UUID productId) {
+        return toArray(products.getOrDefault(productId, List.of()));
+    }
+
+    @Override
+    public int[] byUsername(String username) {
+        return toArray(usernames.getOrDefault(username, List.of()));
+    }
+
+    // Appends come in time order, give or take a few millis between request threads
+    @Override
+    public int[] byTime(long from, long to) {
+        return times.stream()
+                .filter(entry -> entry[0] >= from && entry[0] <= to)
+                .mapToInt(entry -> (int) entry[1])
+                .toArray();
+    }
+
+    // Write the sidecar, entries sorted for binary search
+    void writeTo(Path file) throws IOException {
+        List<long[]> sortedTimes = new ArrayList<>(times);
+        sortedTimes.sort(Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]));
+        Map<UUID, List<Integer>> sortedProducts = new TreeMap<>(products);
+        Map<String, List<Integer>> sortedUsernames = new TreeMap<>(usernames);
+
+        int productEntries = sortedProducts.values().stream().mapToInt(List::size).sum();
+        int length = MappedAuditIndex.HEADER_BYTES + sortedTimes.size() * MappedAuditIndex.TIME_ENTRY_BYTES
+                + productEntries * MappedAuditIndex.PRODUCT_ENTRY_BYTES;
+        for (Map.Entry<String, List<Integer>> entry : sortedUsernames.entrySet()) {
+            length += 2 * Integer.BYTES + entry.getKey().getBytes(StandardCharsets.UTF_8).length
+                    + entry.getValue().size() * Integer.BYTES;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putInt(MappedAuditIndex.MAGIC).putInt(MappedAuditIndex.VERSION)
+                .putLong(minTimestamp).putLong(maxTimestamp)
+                .putInt(sortedTimes.size()).putInt(productEntries).putInt(sortedUsernames.size());
+        sortedTimes.forEach(entry -> buffer.putLong(entry[0]).putInt((int) entry[1]));
+        sortedProducts.forEach((id, offsets) -> offsets.forEach(offset -> buffer
+                .putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).putInt(offset)));
+        sortedUsernames.forEach((username, offsets) -> {
+            byte[] bytes = username.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length).put(bytes).putInt(offsets.size());
+            offsets.forEach(buffer::putInt);
+        });
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static int[] toArray(List<Integer> offsets) {
+        return offsets.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
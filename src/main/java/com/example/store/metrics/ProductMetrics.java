@@ -0,0 +1,75 @@
+package com.example.store.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer meters of the product operations: a latency timer per ProductService method,
+ * with a histogram for server-side percentiles, and counters of not found results, upserts
+ * by outcome and search result sizes. Meters are registered once and then looked up, so recording
+ * stays off the registry's path.
+ */
+@Component
+public class ProductMetrics {
+
+    public static final String OPERATIONS = "store.products.operations";
+    public static final String NOT_FOUND = "store.products.not.found";
+    public static final String UPSERTS = "store.products.upserts";
+    public static final String SEARCH_RESULTS = "store.products.search.results";
+
+    private static final double[] PERCENTILES = { 0.5, 0.95, 0.99 };
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> notFound = new ConcurrentHashMap<>();
+    private final Counter created;
+    private final Counter updated;
+    private final DistributionSummary searchResults;
+
+    public ProductMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.created = Counter.builder(UPSERTS).tag("result", "created")
+                .description("Upserts that created a product").register(registry);
+        this.updated = Counter.builder(UPSERTS).tag("result", "updated")
+                .description("Upserts that updated a product").register(registry);
+        this.searchResults = DistributionSummary.builder(SEARCH_RESULTS)
+                .description("Products returned by a search")
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+    }
+
+    // Record the duration of a ProductService call
+    public void record(String operation, long nanos) {
+        timers.computeIfAbsent(operation, key -> Timer.builder(OPERATIONS)
+                .tag("operation", key)
+                .description("Latency of product operations")
+                .publishPercentileHistogram()
+                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Count a lookup by Id that found nothing
+    public void notFound(String operation) {
+        notFound.computeIfAbsent(operation, key -> Counter.builder(NOT_FOUND)
+                .tag("operation", key)
+                .description("Product operations on a missing Id")
+                .register(registry))
+                .increment();
+    }
+
+    public void upserted(boolean create, int count) {
+        (create ? created : updated).increment(count);
+    }
+
+    public void searched(int results) {
+        searchResults.record(results);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.store.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public ProductService method, failed calls included, under the method name.
+ */
+@Aspect
+@Component
+public class ProductMetricsAspect {
+
+    @Autowired
+    private ProductMetrics productMetrics;
+
+    @Around("execution(public * com.example.store.service.ProductService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            productMetrics.record(joinPoint.getSignature().getName(), System.nanoTime() - start);
+        }
+    }
+}
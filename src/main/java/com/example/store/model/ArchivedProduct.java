@@ -0,0 +1,70 @@
+package com.example.store.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+
+/**
+ * A deleted product moved out of the product table by ProductCompactor, as it was when
+ * deleted. Rows are only inserted, by a statement copying them from the product table, and
+ * keyed by an archive Id of their own, looked up by product Id through an index.
+ */
+@Entity
+@Immutable
+@Table(name = "product_archive", indexes = @Index(name = "product_archive_product_idx", columnList = "product_id"))
+public class ArchivedProduct {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long archiveId;
+
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+
+    @Column(columnDefinition = "TEXT")
+    private String name;
+
+    // Same amount and currency columns as the product's
+    @Embedded
+    private Price price;
+
+    private long version;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+
+    // Getters only, archived products being read-only
+    public Long getArchiveId() {
+        return archiveId;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Price getPrice() {
+        return price;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.store.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversions of price amounts held as a long of minor units, at Price.DEFAULT_SCALE and
+ * rounded with Price.DEFAULT_ROUNDING_MODE. Parsing and formatting work on characters, so
+ * that JSON amounts are read and written without going through BigDecimal.
+ */
+public final class MinorUnits {
+
+    // Minor units per major unit
+    public static final long FACTOR = 100;
+
+    // Enough for the sign, the 19 digits of a long and the decimal point
+    public static final int MAX_CHARS = 21;
+
+    private MinorUnits() {
+    }
+
+    // Rounds to the default scale. Amounts beyond the range of a long are rejected.
+    public static long of(BigDecimal amount) {
+        try {
+            return amount.setScale(Price.DEFAULT_SCALE, Price.DEFAULT_ROUNDING_MODE).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + amount);
+        }
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, Price.DEFAULT_SCALE);
+    }
+
+    // Parse a plain decimal such as "-12.345", rounding half up on the digits past the scale.
+    // Exponents aren't handled here, callers fall back to of() for those.
+    public static long parse(char[] chars, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long major = 0;
+        int digits = 0;
+        for (; i < end && chars[i] != '.'; i++) {
+            major = Math.addExact(Math.multiplyExact(major, 10), digit(chars, i, chars[i]));
+            digits++;
+        }
+        long minor = 0;
+        int scale = 0;
+        boolean roundUp = false;
+        if (i < end) {
+            for (i++; i < end; i++) {
+                int digit = digit(chars, i, chars[i]);
+                if (scale < Price.DEFAULT_SCALE) {
+                    minor = minor * 10 + digit;
+                    scale++;
+                } else if (scale++ == Price.DEFAULT_SCALE) {
+                    roundUp = digit >= 5;
+                }
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not a number: " + new String(chars, offset, length));
+        }
+        for (; scale < Price.DEFAULT_SCALE; scale++) {
+            minor *= 10;
+        }
+        long units = Math.addExact(Math.multiplyExact(major, FACTOR), minor + (roundUp ? 1 : 0));
+        return negative ? -units : units;
+    }
+
+    // Write the amount with exactly the default scale, e.g. "1899.90", returning the length.
+    // The buffer needs MAX_CHARS.
+    public static int format(long minorUnits, char[] buffer) {
+        int position = buffer.length;
+        // Digits are taken off a negative value, which covers Long.MIN_VALUE
+        long remaining = minorUnits < 0 ? minorUnits : -minorUnits;
+        for (int scale = 0; scale < Price.DEFAULT_SCALE; scale++) {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        }
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (minorUnits < 0) {
+            buffer[--position] = '-';
+        }
+        int length = buffer.length - position;
+        System.arraycopy(buffer, position, buffer, 0, length);
+        return length;
+    }
+
+    private static int digit(char[] chars, int index, char c) {
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Invalid character '" + c + "' at " + index);
+        }
+        return c - '0';
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.store.model;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Maps amounts in minor units to the decimal column they were always stored in.
+ */
+@Converter
+public class MinorUnitsConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long minorUnits) {
+        return minorUnits == null ? null : MinorUnits.toBigDecimal(minorUnits);
+    }
+
+    // A price row without amount reads as zero, the attribute being primitive
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? 0L : MinorUnits.of(amount);
+    }
+}
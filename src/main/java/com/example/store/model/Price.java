@@ -5,56 +5,60 @@ import java.math.RoundingMode;
 import java.util.Currency;
 import java.util.Objects;
 
-import org.hibernate.annotations.SoftDelete;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 
 /**
- * Entity class for prices, having defaults for scale and rounding 
+ * Embeddable value class for prices, having defaults for scale and rounding
  * in line with most currencies. Add() and subtract() are not implemented
- * as there was no use case for their use. Records are not erased, but
- * marked as deleted(inactive) through @SoftDelete.
+ * as there was no use case for their use. Stored in the product's own row,
+ * so products are read without a join, and sortable or filterable by price.
+ * The amount is held as a long of minor units, compared and summed without
+ * allocating, and still read and written as a decimal, in the database and
+ * in JSON.
  */
-@Entity
-@SoftDelete
-public class Price implements Identifiable<Long> {
+@Embeddable
+@JsonSerialize(using = PriceSerializer.class)
+@JsonDeserialize(using = PriceDeserializer.class)
+public class Price implements Comparable<Price> {
 
     public static final int DEFAULT_SCALE = 2;
     public static final int DEFAULT_PRECISION = 19;
     public static final RoundingMode DEFAULT_ROUNDING_MODE = RoundingMode.HALF_UP;
 
-    // Regular Id generation, as it donesn't need to have the Id assignable
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    // Currency amount enforced positive
-    @Column(precision = DEFAULT_PRECISION, scale = DEFAULT_SCALE)
+    // Currency amount enforced positive, in minor units
+    @Column(name = "amount", precision = DEFAULT_PRECISION, scale = DEFAULT_SCALE)
+    @Convert(converter = MinorUnitsConverter.class)
     @PositiveOrZero
-    private BigDecimal amount;
+    private long amount;
 
-    // The price's currency
+    // The price's currency, Currency instances being shared per code
     @NotNull
     private Currency currency;
 
     // Setters and getters, only setAmount having a meaningful implementation
-    // equals() and hash() are standard for entities
+    // equals() and hash() compare values, a price having no identity of its own
     public BigDecimal getAmount() {
-        return this.amount;
+        return MinorUnits.toBigDecimal(amount);
     }
 
     // Apply the default scale and rounding when setting amount
     public void setAmount(BigDecimal amount) {
-        this.amount = amount.setScale(DEFAULT_SCALE, DEFAULT_ROUNDING_MODE);
+        this.amount = MinorUnits.of(amount);
     }
 
-    public Long getId() {
-        return this.id;
+    @JsonIgnore
+    public long getMinorUnits() {
+        return this.amount;
     }
 
-    public void setId(Long id) {
-        this.id = id;
+    public void setMinorUnits(long minorUnits) {
+        this.amount = minorUnits;
     }
 
     public Currency getCurrency() {
@@ -65,6 +69,13 @@ public class Price implements Identifiable<Long> {
         this.currency = currency;
     }
 
+    // By currency, then amount. Amounts in different currencies aren't converted.
+    @Override
+    public int compareTo(Price other) {
+        int byCurrency = currency.getCurrencyCode().compareTo(other.getCurrency().getCurrencyCode());
+        return byCurrency != 0 ? byCurrency : Long.compare(amount, other.getMinorUnits());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -72,17 +83,17 @@ public class Price implements Identifiable<Long> {
         if (!(o instanceof Price))
             return false;
         Price price = (Price) o;
-        return id != null && id.equals(price.getId());
+        return amount == price.getMinorUnits() && Objects.equals(currency, price.getCurrency());
     }
-    
+
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return 31 * Long.hashCode(amount) + Objects.hashCode(currency);
     }
 
     @Override
     public String toString() {
-        return String.format("[%s %s]", currency, amount);
+        return String.format("[%s %s]", currency, getAmount());
     }
 
 }
@@ -0,0 +1,84 @@
+package com.example.store.model;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Reads {"amount":1899.90,"currency":"EUR"}, parsing the amount from the token's characters
+ * into minor units. Amounts may also come as strings, and unknown fields are skipped.
+ */
+public class PriceDeserializer extends StdDeserializer<Price> {
+
+    public PriceDeserializer() {
+        super(Price.class);
+    }
+
+    @Override
+    public Price deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.isExpectedStartObjectToken()) {
+            return (Price) ctxt.handleUnexpectedToken(Price.class, p);
+        }
+        Price price = new Price();
+        boolean hasAmount = false;
+        for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+            JsonToken token = p.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "amount" -> {
+                    price.setMinorUnits(minorUnits(p, ctxt, token));
+                    hasAmount = true;
+                }
+                case "currency" -> price.setCurrency(currency(p, ctxt));
+                default -> p.skipChildren();
+            }
+        }
+        if (!hasAmount) {
+            return ctxt.reportInputMismatch(Price.class, "Price amount is required");
+        }
+        return price;
+    }
+
+    private static long minorUnits(JsonParser p, DeserializationContext ctxt, JsonToken token) throws IOException {
+        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT
+                && token != JsonToken.VALUE_STRING) {
+            return (Long) ctxt.handleUnexpectedToken(BigDecimal.class, p);
+        }
+        char[] chars = p.getTextCharacters();
+        int offset = p.getTextOffset();
+        int length = p.getTextLength();
+        try {
+            if (indexOfExponent(chars, offset, length) < 0) {
+                return MinorUnits.parse(chars, offset, length);
+            }
+            return MinorUnits.of(new BigDecimal(chars, offset, length));
+        } catch (NumberFormatException | ArithmeticException e) {
+            return ctxt.reportInputMismatch(Price.class, "Invalid price amount: %s", p.getText());
+        }
+    }
+
+    private static Currency currency(JsonParser p, DeserializationContext ctxt) throws IOException {
+        String code = p.getValueAsString();
+        try {
+            return Currency.getInstance(code);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return ctxt.reportInputMismatch(Price.class, "Invalid currency: %s", code);
+        }
+    }
+
+    private static int indexOfExponent(char[] chars, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (chars[i] == 'e' || chars[i] == 'E') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
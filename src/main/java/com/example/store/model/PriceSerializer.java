@@ -0,0 +1,42 @@
+package com.example.store.model;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes a price as {"id":null,"amount":1899.90,"currency":"EUR"}, as BigDecimal amounts were
+ * written, formatting the minor units into a per-thread buffer. Binary formats such as CBOR and
+ * Smile, which have no textual numbers, get the amount as a decimal value instead. Prices have
+ * no rows of their own anymore, so the id they used to be written with is always null.
+ */
+public class PriceSerializer extends StdSerializer<Price> {
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[MinorUnits.MAX_CHARS]);
+
+    public PriceSerializer() {
+        super(Price.class);
+    }
+
+    @Override
+    public void serialize(Price price, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(price);
+        gen.writeNullField("id");
+        gen.writeFieldName("amount");
+        if (gen.canWriteFormattedNumbers()) {
+            char[] buffer = BUFFER.get();
+            gen.writeNumber(buffer, 0, MinorUnits.format(price.getMinorUnits(), buffer));
+        } else {
+            gen.writeNumber(MinorUnits.toBigDecimal(price.getMinorUnits()));
+        }
+        gen.writeFieldName("currency");
+        if (price.getCurrency() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(price.getCurrency().getCurrencyCode());
+        }
+        gen.writeEndObject();
+    }
+}
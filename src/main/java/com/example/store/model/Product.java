@@ -1,22 +1,36 @@
 package com.example.store.model;
 
+import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.SoftDelete;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 /**
- * Entity class for products. Declares a OneToOne relation with Price.
+ * Entity class for products, embedding their Price in the same row.
  * For PUT's idempotence, it's helpful for the entity Id to be assignable,
  * leaving UUID as the most viable solution. Records are not erased, but
- * marked as deleted(inactive) through @SoftDelete.
+ * marked as deleted(inactive) through @SoftDelete. The version is bumped by
+ * every change, price included, and backs the product's ETag. Prices are
+ * indexed by currency and amount, the Id breaking ties, for price ranges and
+ * the cheapest products to be read off the index in order. Deleted products
+ * carry their deletion time, for ProductCompactor to archive them once past
+ * the retention window. Names are indexed with the Id, for keyset pages to
+ * start from their cursor in the index.
  */
 @Entity
 @SoftDelete
+@Table(indexes = {
+        @Index(name = "product_price_idx", columnList = "currency, amount, id"),
+        @Index(name = "product_name_idx", columnList = "name, id"),
+        @Index(name = "product_deleted_idx", columnList = "deleted_at") })
 public class Product implements Identifiable<UUID> {
 
     // Max permitted size for product name
@@ -29,14 +43,25 @@ public class Product implements Identifiable<UUID> {
     // Product name
     @NotBlank
     @Size(min = 1, max = MAX_NAME_SIZE)
-    @Column(columnDefinition = "TEXT")
+    @Column(length = MAX_NAME_SIZE)
     private String name;
 
-    // Relation to Price. 
+    // Price, as amount and currency columns of the product. Null when both are null.
     @Valid
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
+    @Embedded
     private Price price;
 
+    // Optimistic lock version, not part of the API. The default covers rows inserted by SQL.
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long version;
+
+    // Set by ProductBatchRepository.softDelete() only, so null on every live product
+    @Column(name = "deleted_at", insertable = false, updatable = false)
+    @JsonIgnore
+    private Instant deletedAt;
+
     // Setters and getters
     public String getName() {
         return name;
@@ -62,6 +87,18 @@ public class Product implements Identifiable<UUID> {
         this.price = price;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
     // Id is never null under normal conditions
     @Override
     public boolean equals(Object o) {
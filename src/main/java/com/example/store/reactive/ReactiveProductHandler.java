@@ -0,0 +1,157 @@
+package com.example.store.reactive;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.example.store.dto.PaginatedResponse;
+import com.example.store.index.ProductNameIndex;
+import com.example.store.model.Product;
+import com.example.store.service.CatalogCounter;
+import com.example.store.service.CatalogVersion;
+import com.example.store.service.ProductCache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Handlers of the reactive GET /products, /products/{id} and /products/search, answering as
+ * ProductController does: the same PaginatedResponse pages, ETags and Last-Modified. Products
+ * by Id come from ProductCache when present, and totals from the live product counter, as in
+ * ProductService. With Accept: application/x-ndjson, pages are streamed product by product
+ * instead, rows being read from the database as the client takes them.
+ */
+public class ReactiveProductHandler {
+
+    // Same defaults and cap as the servlet endpoints
+    private static final int PAGE_SIZE = 10;
+    private static final String PAGE_SORT = "name";
+    private static final int MAX_PAGE_SIZE = 2000;
+
+    private final ReactiveProductRepository repository;
+    private final ProductCache productCache;
+    private final ProductNameIndex productNameIndex;
+    private final CatalogCounter catalogCounter;
+    private final CatalogVersion catalogVersion;
+
+    public ReactiveProductHandler(ReactiveProductRepository repository, ProductCache productCache,
+            ProductNameIndex productNameIndex, CatalogCounter catalogCounter, CatalogVersion catalogVersion) {
+        this.repository = repository;
+        this.productCache = productCache;
+        this.productNameIndex = productNameIndex;
+        this.catalogCounter = catalogCounter;
+        this.catalogVersion = catalogVersion;
+    }
+
+    public Mono<ServerResponse> list(ServerRequest request) {
+        Pageable pageable = pageable(request);
+        if (streamed(request)) {
+            return stream(repository.findAll(pageable));
+        }
+        // Validators read before the products, as in ProductController
+        String etag = catalogVersion.etag();
+        Instant lastModified = Instant.ofEpochMilli(catalogVersion.lastModified());
+        return request.checkNotModified(lastModified, etag)
+                .switchIfEmpty(Mono.defer(() -> {
+                    OptionalLong liveProducts = catalogCounter.liveProducts();
+                    Mono<Long> total = liveProducts.isPresent() ? Mono.just(liveProducts.getAsLong()) : repository.count();
+                    return page(repository.findAll(pageable), total, pageable, ServerResponse.ok()
+                            .eTag(etag)
+                            .lastModified(lastModified));
+                }));
+    }
+
+    public Mono<ServerResponse> findById(ServerRequest request) {
+        UUID id;
+        try {
+            id = UUID.fromString(request.pathVariable("id"));
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().build();
+        }
+        Optional<Product> cached = productCache.get(id);
+        Mono<Product> product = cached.isPresent() ? Mono.just(cached.get()) : repository.findById(id);
+        Instant lastModified = Instant.ofEpochMilli(catalogVersion.lastModified());
+        return product
+                .flatMap(found -> request.checkNotModified(lastModified, etag(found))
+                        .switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                                .eTag(etag(found))
+                                .lastModified(lastModified)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(found))))
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.notFound().build()));
+    }
+
+    // The name index narrows the search down when it can, as in ProductService.search()
+    public Mono<ServerResponse> search(ServerRequest request) {
+        String searchTerm = request.queryParam("searchTerm").orElse(null);
+        Pageable pageable = pageable(request);
+        Optional<Set<UUID>> candidates = productNameIndex.candidates(searchTerm);
+        // Without a term nothing matches, as in the JPQL search
+        if (searchTerm == null || candidates.isPresent() && candidates.get().isEmpty()) {
+            return streamed(request) ? stream(Flux.empty()) : page(Flux.empty(), Mono.just(0L), pageable, ServerResponse.ok());
+        }
+        Set<UUID> ids = candidates.orElse(null);
+        Flux<Product> products = repository.search(searchTerm, ids, pageable);
+        if (streamed(request)) {
+            return stream(products);
+        }
+        return page(products, repository.countSearch(searchTerm, ids), pageable, ServerResponse.ok());
+    }
+
+    // Same ETag as ProductController's for JSON, the one format served here
+    private static String etag(Product product) {
+        return "\"" + product.getVersion() + "\"";
+    }
+
+    private static Mono<ServerResponse> page(Flux<Product> products, Mono<Long> total, Pageable pageable,
+            ServerResponse.BodyBuilder response) {
+        return Mono.zip(products.collectList(), total)
+                .map(result -> PaginatedResponse.of(new PageImpl<>(result.getT1(), pageable, result.getT2())))
+                .flatMap(body -> response.contentType(MediaType.APPLICATION_JSON).bodyValue(body));
+    }
+
+    private static Mono<ServerResponse> stream(Flux<Product> products) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(products, Product.class);
+    }
+
+    private static boolean streamed(ServerRequest request) {
+        return request.headers().accept().contains(MediaType.APPLICATION_NDJSON);
+    }
+
+    // page, size and sort=property[,asc|desc] parameters, as bound to Pageable by Spring Data
+    private static Pageable pageable(ServerRequest request) {
+        int page = Math.max(0, intParam(request, "page", 0));
+        int size = intParam(request, "size", PAGE_SIZE);
+        size = size < 1 ? PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String sort : request.queryParams().getOrDefault("sort", List.of())) {
+            String[] parts = sort.split(",");
+            if (parts.length > 1 && parts[1].equalsIgnoreCase("desc")) {
+                orders.add(Sort.Order.desc(parts[0]));
+            } else if (!parts[0].isBlank()) {
+                orders.add(Sort.Order.asc(parts[0]));
+            }
+        }
+        return PageRequest.of(page, size, orders.isEmpty() ? Sort.by(PAGE_SORT) : Sort.by(orders));
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        try {
+            return request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
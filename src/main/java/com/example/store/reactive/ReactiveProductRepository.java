@@ -0,0 +1,119 @@
+package com.example.store.reactive;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.example.store.model.MinorUnits;
+import com.example.store.model.Price;
+import com.example.store.model.Product;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Product reads over R2DBC, the counterpart of the ProductRepository queries behind the
+ * servlet GET endpoints. Rows map to the same Product and Price model, soft-deleted products
+ * being left out as Hibernate does.
+ */
+public class ReactiveProductRepository {
+
+    private static final String COLUMNS = "select id, name, version, amount, currency from product";
+    private static final String LIVE = " where deleted = false";
+    private static final String NAME_MATCHES = " and lower(name) like :pattern";
+    private static final String AMONG = " and id in (:ids)";
+
+    // Sortable properties, by their name in Pageable and in the model
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "name", "name",
+            "price.amount", "amount",
+            "price.currency", "currency");
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveProductRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Product> findById(UUID id) {
+        return databaseClient.sql(COLUMNS + LIVE + " and id = :id")
+                .bind("id", id)
+                .map(ReactiveProductRepository::product)
+                .one();
+    }
+
+    public Flux<Product> findAll(Pageable pageable) {
+        return databaseClient.sql(COLUMNS + LIVE + orderAndLimit(pageable))
+                .map(ReactiveProductRepository::product)
+                .all();
+    }
+
+    public Mono<Long> count() {
+        return databaseClient.sql("select count(*) from product" + LIVE)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    // Products whose name contains the term, among the given candidates when not null
+    public Flux<Product> search(String searchTerm, Collection<UUID> ids, Pageable pageable) {
+        return bindSearch(databaseClient.sql(COLUMNS + LIVE + NAME_MATCHES + (ids == null ? "" : AMONG)
+                + orderAndLimit(pageable)), searchTerm, ids)
+                .map(ReactiveProductRepository::product)
+                .all();
+    }
+
+    public Mono<Long> countSearch(String searchTerm, Collection<UUID> ids) {
+        return bindSearch(databaseClient.sql("select count(*) from product" + LIVE + NAME_MATCHES
+                + (ids == null ? "" : AMONG)), searchTerm, ids)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    // Same matching as ProductRepository.search(), for a term that isn't null
+    private static DatabaseClient.GenericExecuteSpec bindSearch(DatabaseClient.GenericExecuteSpec spec,
+            String searchTerm, Collection<UUID> ids) {
+        spec = spec.bind("pattern", "%" + searchTerm.toLowerCase(Locale.ROOT) + "%");
+        return ids == null ? spec : spec.bind("ids", ids);
+    }
+
+    // Unknown sort properties are rejected, as Spring Data does for the servlet endpoints
+    private static String orderAndLimit(Pageable pageable) {
+        StringBuilder sql = new StringBuilder();
+        for (Sort.Order order : pageable.getSort()) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("No sortable property " + order.getProperty());
+            }
+            sql.append(sql.length() == 0 ? " order by " : ", ").append(column).append(order.isAscending() ? "" : " desc");
+        }
+        return sql.append(" limit ").append(pageable.getPageSize())
+                .append(" offset ").append(pageable.getOffset())
+                .toString();
+    }
+
+    private static Product product(Readable row) {
+        Product product = new Product();
+        product.setId(row.get("id", UUID.class));
+        product.setName(row.get("name", String.class));
+        Long version = row.get("version", Long.class);
+        product.setVersion(version == null ? 0 : version);
+        String currency = row.get("currency", String.class);
+        if (currency != null) {
+            BigDecimal amount = row.get("amount", BigDecimal.class);
+            Price price = new Price();
+            price.setMinorUnits(amount == null ? 0 : MinorUnits.of(amount));
+            price.setCurrency(Currency.getInstance(currency));
+            product.setPrice(price);
+        }
+        return product;
+    }
+}
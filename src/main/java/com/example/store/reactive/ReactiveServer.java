@@ -0,0 +1,141 @@
+package com.example.store.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.WebFilter;
+
+import com.example.store.index.ProductNameIndex;
+import com.example.store.service.CatalogCounter;
+import com.example.store.service.CatalogVersion;
+import com.example.store.service.ProductCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Non-blocking read API on a Netty server of its own, next to the servlet container, enabled
+ * with store.reactive.enabled. Products are read through R2DBC from the same in-memory
+ * database. The connection factory stays private to this server, keeping Spring Boot's R2DBC
+ * auto-configuration, and a second transaction manager, out of the servlet application.
+ *
+ * WebFilter beans, such as ReactiveSecurityFilter, apply to every request.
+ */
+@Component
+@ConditionalOnProperty(name = "store.reactive.enabled", havingValue = "true")
+public class ReactiveServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveServer.class);
+
+    @Value("${store.reactive.port:8081}")
+    private int port;
+
+    @Value("${store.reactive.r2dbc-url:r2dbc:pool:h2:mem:///testdb?maxSize=16}")
+    private String r2dbcUrl;
+
+    // Credentials of the JDBC data source, the database being the same
+    @Value("${spring.datasource.username:sa}")
+    private String username;
+
+    @Value("${spring.datasource.password:}")
+    private String password;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductNameIndex productNameIndex;
+
+    @Autowired
+    private CatalogCounter catalogCounter;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ObjectProvider<WebFilter> webFilters;
+
+    private ConnectionFactory connectionFactory;
+    private DisposableServer server;
+
+    @Override
+    public void start() {
+        connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+        ReactiveProductHandler handler = new ReactiveProductHandler(
+                new ReactiveProductRepository(DatabaseClient.create(connectionFactory)),
+                productCache, productNameIndex, catalogCounter, catalogVersion);
+
+        HandlerStrategies.Builder strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                });
+        webFilters.orderedStream().forEach(strategies::webFilter);
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(routes(handler), strategies.build());
+
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        logger.info("Reactive read API listening on port {}", server.port());
+    }
+
+    // Search before {id}, which would otherwise match it. Invalid paging or sorting parameters,
+    // thrown while building a response, are bad requests.
+    private static RouterFunction<ServerResponse> routes(ReactiveProductHandler handler) {
+        return RouterFunctions.route()
+                .GET("/products/search", handler::search)
+                .GET("/products/{id}", handler::findById)
+                .GET("/products", handler::list)
+                .filter((request, next) -> Mono.defer(() -> next.handle(request))
+                        .onErrorResume(IllegalArgumentException.class, e -> ServerResponse.badRequest().build()))
+                .build();
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+        if (connectionFactory instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    // The port bound, for tests asking for a random one with port 0
+    public int getPort() {
+        return server.port();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.store.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import com.example.store.model.ArchivedProduct;
+
+/**
+ * Repository of archived products, and the statements moving soft-deleted products into the
+ * archive. Those are native, soft-deleted rows being out of reach of JPQL on Product.
+ */
+public interface ProductArchiveRepository extends CrudRepository<ArchivedProduct, Long> {
+
+    // Soft-deleted products due for archiving, oldest first, through the deleted_at index. Ids
+    // are selected as text, as native queries return uuid columns as bytes.
+    @Query(value = "select cast(id as varchar) from product where deleted = true and deleted_at < :cutoff"
+            + " order by deleted_at fetch first :limit rows only", nativeQuery = true)
+    List<UUID> findDeletedBefore(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    @Query(value = "select count(*) from product where deleted = true and deleted_at < :cutoff", nativeQuery = true)
+    long countDeletedBefore(@Param("cutoff") Instant cutoff);
+
+    // Copy soft-deleted products into the archive, to be followed by purge() in the same transaction
+    @Modifying
+    @Query(value = "insert into product_archive (product_id, name, amount, currency, version, deleted_at, archived_at)"
+            + " select id, name, amount, currency, version, deleted_at, :archivedAt from product"
+            + " where deleted = true and id in (:ids)", nativeQuery = true)
+    int copyToArchive(@Param("ids") Collection<UUID> ids, @Param("archivedAt") Instant archivedAt);
+
+    // Remove soft-deleted products from the product table
+    @Modifying
+    @Query(value = "delete from product where deleted = true and id in (:ids)", nativeQuery = true)
+    int purge(@Param("ids") Collection<UUID> ids);
+
+    List<ArchivedProduct> findByProductId(UUID productId);
+
+    // Those of the given Ids that belong to deleted products, soft-deleted or archived, and
+    // can't be used again
+    @Query(value = "select cast(id as varchar) from product where deleted = true and id in (:ids)"
+            + " union select cast(product_id as varchar) from product_archive where product_id in (:ids)",
+            nativeQuery = true)
+    List<UUID> findDeletedAmong(@Param("ids") Collection<UUID> ids);
+}
@@ -0,0 +1,44 @@
+package com.example.store.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.example.store.model.Price;
+import com.example.store.model.Product;
+
+/**
+ * Repository fragment for bulk operations, single upserts and patches. Writes bypass save()'s merge.
+ * With assigned UUIDs, save() can't tell new products apart and selects each one before inserting
+ * it, and a loaded product is only written back after being read.
+ */
+public interface ProductBatchRepository {
+
+    // Insert products known to be new. Inserts are sent in JDBC batches at flush time.
+    void persistAll(Collection<Product> products);
+
+    // Send pending changes and detach everything, keeping the persistence context small between chunks
+    void flushAndClear();
+
+    // Detach everything without flushing, for read-only passes over many products
+    void detachAll();
+
+    // Write a product by Id with a database-side MERGE statement, without reading it first. A
+    // product is created only if create is set, and updated only if it has the expected version,
+    // when given. Returns the written
+    // product with its new version, 0 when created, or empty when nothing matched.
+    Optional<Product> merge(UUID id, Product product, boolean create, Long expectedVersion);
+
+    // Rename a live product in place, bumping its version. Returns its new state, read back by
+    // the same statement, or empty if there is no such product.
+    Optional<Product> updateName(UUID id, String name);
+
+    // Change the price of a live product in place, bumping its version. Returns its new state,
+    // read back by the same statement, or empty if there is no such product.
+    Optional<Product> updatePrice(UUID id, Price price);
+
+    // Soft-delete a live product, recording when, without reading it first. Returns false if
+    // there is no such product.
+    boolean softDelete(UUID id, Instant deletedAt);
+}
@@ -0,0 +1,162 @@
+package com.example.store.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.ConstraintViolationException.ConstraintKind;
+import org.hibernate.query.NativeQuery;
+import org.springframework.dao.DuplicateKeyException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import com.example.store.model.MinorUnits;
+import com.example.store.model.Price;
+import com.example.store.model.Product;
+
+/**
+ * Implementation of ProductBatchRepository, picked up by Spring Data through its Impl suffix.
+ */
+public class ProductBatchRepositoryImpl implements ProductBatchRepository {
+
+    // Soft-deleted products match without being updated, so their Ids can't be reused. Neither
+    // can those of products archived since, the insert being skipped for them.
+    private static final String MERGE_PRODUCT = "select version from final table (merge into product t"
+            + " using (select cast(:id as uuid) as id) s on t.id = s.id"
+            + " when matched and t.deleted = false and (cast(:version as bigint) is null or t.version = :version)"
+            + " then update set name = :name, amount = :amount, currency = :currency, version = t.version + 1";
+
+    private static final String INSERT_PRODUCT = " when not matched"
+            + " and not exists (select 1 from product_archive a where a.product_id = s.id)"
+            + " then insert (id, name, amount, currency, deleted, version)"
+            + " values (s.id, :name, :amount, :currency, false, 0)";
+
+    // The product's new state, read back from the updated row
+    private static final String UPDATED_PRODUCT = "select name, version, amount, currency"
+            + " from final table (update product set %s, version = version + 1 where id = :id and deleted = false)";
+
+    private static final String RENAME_PRODUCT = String.format(UPDATED_PRODUCT, "name = :name");
+
+    private static final String REPRICE_PRODUCT = String.format(UPDATED_PRODUCT, "amount = :amount, currency = :currency");
+
+    private static final String DELETE_PRODUCT = "update product set deleted = true, deleted_at = :deletedAt,"
+            + " version = version + 1 where id = :id and deleted = false";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void persistAll(Collection<Product> products) {
+        products.forEach(entityManager::persist);
+    }
+
+    @Override
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public void detachAll() {
+        entityManager.clear();
+    }
+
+    // A single statement, which writes nothing when it returns empty
+    @Override
+    public Optional<Product> merge(UUID id, Product product, boolean create, Long expectedVersion) {
+        Price price = product.getPrice();
+        List<?> versions;
+        try {
+            versions = synchronizedQuery(create ? MERGE_PRODUCT + INSERT_PRODUCT + ")" : MERGE_PRODUCT + ")")
+                    .setParameter("id", id)
+                    .setParameter("version", create ? null : expectedVersion, Long.class)
+                    .setParameter("name", product.getName())
+                    .setParameter("amount", price == null ? null : MinorUnits.toBigDecimal(price.getMinorUnits()), BigDecimal.class)
+                    .setParameter("currency", price == null ? null : price.getCurrency().getCurrencyCode(), String.class)
+                    .getResultList();
+        } catch (ConstraintViolationException e) {
+            // Inserted by a concurrent transaction since the merge looked for it. Reported as a
+            // duplicate key, which Spring's translation leaves as a generic integrity violation.
+            if (e.getKind() == ConstraintKind.UNIQUE) {
+                throw new DuplicateKeyException("Product Id " + id + " was created concurrently", e);
+            }
+            throw e;
+        }
+        // Any instance already loaded by this session is now stale
+        entityManager.detach(entityManager.getReference(Product.class, id));
+        if (versions.isEmpty()) {
+            if (create) {
+                throw new DuplicateKeyException("Product Id " + id + " belongs to a deleted product");
+            }
+            return Optional.empty();
+        }
+        product.setId(id);
+        product.setVersion(((Number) versions.get(0)).longValue());
+        return Optional.of(product);
+    }
+
+    @Override
+    public Optional<Product> updateName(UUID id, String name) {
+        List<?> rows = synchronizedQuery(RENAME_PRODUCT)
+                .setParameter("id", id)
+                .setParameter("name", name)
+                .getResultList();
+        return updated(id, rows);
+    }
+
+    @Override
+    public Optional<Product> updatePrice(UUID id, Price price) {
+        List<?> rows = synchronizedQuery(REPRICE_PRODUCT)
+                .setParameter("id", id)
+                .setParameter("amount", MinorUnits.toBigDecimal(price.getMinorUnits()))
+                .setParameter("currency", price.getCurrency().getCurrencyCode())
+                .getResultList();
+        return updated(id, rows);
+    }
+
+    @Override
+    public boolean softDelete(UUID id, Instant deletedAt) {
+        int deleted = synchronizedQuery(DELETE_PRODUCT)
+                .setParameter("id", id)
+                .setParameter("deletedAt", deletedAt)
+                .executeUpdate();
+        entityManager.detach(entityManager.getReference(Product.class, id));
+        return deleted > 0;
+    }
+
+    // Product built from a row of UPDATED_PRODUCT, the instance loaded by this session, if any,
+    // being stale
+    private Optional<Product> updated(UUID id, List<?> rows) {
+        entityManager.detach(entityManager.getReference(Product.class, id));
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = (Object[]) rows.get(0);
+        Product product = new Product();
+        product.setId(id);
+        product.setName((String) row[0]);
+        product.setVersion(((Number) row[1]).longValue());
+        if (row[3] != null) {
+            Price price = new Price();
+            price.setMinorUnits(row[2] == null ? 0 : MinorUnits.of((BigDecimal) row[2]));
+            price.setCurrency(Currency.getInstance((String) row[3]));
+            product.setPrice(price);
+        }
+        return Optional.of(product);
+    }
+
+    // Native query declaring the table it touches, for pending changes to it to be flushed first
+    @SuppressWarnings("unchecked")
+    private NativeQuery<Object> synchronizedQuery(String sql) {
+        Query query = entityManager.createNativeQuery(sql);
+        return query.unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Product.class);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.store.repository;
+
+import java.util.UUID;
+
+/**
+ * Projection of a product to its Id, name and version, for building the in-memory name
+ * indexes without loading prices.
+ */
+public interface ProductNameView {
+
+    UUID getId();
+
+    String getName();
+
+    long getVersion();
+}
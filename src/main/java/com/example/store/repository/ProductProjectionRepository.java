@@ -0,0 +1,30 @@
+package com.example.store.repository;
+
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+
+import com.example.store.dto.ProductField;
+
+/**
+ * Repository fragment for reads narrowed to some product fields, the counterparts of findAll(),
+ * findByPrice(), search() and searchAmong(). Only the columns of those fields are selected,
+ * and rows come back as field name to value maps, without loading or tracking entities.
+ * Totals are left to the count queries of ProductRepository.
+ */
+public interface ProductProjectionRepository {
+
+    List<Map<String, Object>> findFields(Set<ProductField> fields, Pageable pageable);
+
+    List<Map<String, Object>> findFieldsByPrice(Set<ProductField> fields, Currency currency, long min, long max,
+            Pageable pageable);
+
+    // Products whose name contains the term, among the given candidates when not null
+    List<Map<String, Object>> searchFields(Set<ProductField> fields, String searchTerm, Collection<UUID> ids,
+            Pageable pageable);
+}
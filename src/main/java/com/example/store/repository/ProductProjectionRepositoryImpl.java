@@ -0,0 +1,79 @@
+package com.example.store.repository;
+
+import java.util.Collection;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import com.example.store.dto.ProductField;
+
+/**
+ * Implementation of ProductProjectionRepository, picked up by Spring Data through its Impl suffix.
+ * Queries are JPQL built from the fields and sort, with the same conditions as the ProductRepository
+ * queries they stand in for. Being strings, they go through Hibernate's query plan cache, which
+ * criteria queries don't, and @SoftDelete restricts them to live products as any query on Product.
+ */
+public class ProductProjectionRepositoryImpl implements ProductProjectionRepository {
+
+    private static final String PRICE_IN = " where p.price.currency = :currency and p.price.amount between :min and :max";
+    private static final String NAME_MATCHES = " where lower(p.name) like lower(concat('%', :searchTerm, '%'))";
+    private static final String AMONG = " and p.id in :ids";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFields(Set<ProductField> fields, Pageable pageable) {
+        return rows(fields, query(fields, "", pageable));
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByPrice(Set<ProductField> fields, Currency currency, long min, long max,
+            Pageable pageable) {
+        return rows(fields, query(fields, PRICE_IN, pageable)
+                .setParameter("currency", currency)
+                .setParameter("min", min)
+                .setParameter("max", max));
+    }
+
+    @Override
+    public List<Map<String, Object>> searchFields(Set<ProductField> fields, String searchTerm, Collection<UUID> ids,
+            Pageable pageable) {
+        TypedQuery<Tuple> query = query(fields, NAME_MATCHES + (ids == null ? "" : AMONG), pageable)
+                .setParameter("searchTerm", searchTerm);
+        return rows(fields, ids == null ? query : query.setParameter("ids", ids));
+    }
+
+    // Select the fields' attributes under their names, the price as its embedded columns
+    private TypedQuery<Tuple> query(Set<ProductField> fields, String condition, Pageable pageable) {
+        String select = fields.stream()
+                .map(field -> "p." + field.property() + " as " + field.property())
+                .collect(Collectors.joining(", ", "select ", " from Product p"));
+        return entityManager.createQuery(QueryUtils.applySorting(select + condition, pageable.getSort(), "p"), Tuple.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+    }
+
+    // Same keys, in the same order, as ProductField.of() on a loaded product
+    private static List<Map<String, Object>> rows(Set<ProductField> fields, TypedQuery<Tuple> query) {
+        return query.getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    fields.forEach(field -> row.put(field.property(), tuple.get(field.property())));
+                    return row;
+                })
+                .toList();
+    }
+}
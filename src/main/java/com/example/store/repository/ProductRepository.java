@@ -1,25 +1,113 @@
 package com.example.store.repository;
 
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import com.example.store.model.Product;
 
 /**
- * Repository class for products.
+ * Repository class for products. Bulk writes come from the ProductBatchRepository fragment,
+ * and reads narrowed to some fields from ProductProjectionRepository.
  */
-public interface ProductRepository extends CrudRepository<Product, UUID> {
+public interface ProductRepository extends CrudRepository<Product, UUID>, ProductBatchRepository,
+        ProductProjectionRepository {
+
+    // Rows fetched per round trip by streamAll()
+    int EXPORT_FETCH_SIZE = 500;
     
     // Given the simplicity of the model, a more realistic text search approach was considered out of scope.
     // Only the name is searchable, while Pageable allows pagination and flexibility for clients
     @Query("select p from Product p where lower(p.name) like lower(concat('%', :searchTerm, '%'))")
     Page<Product> search(@Param("searchTerm") String searchTerm, Pageable pageable);
 
+    // Same as search(), restricted to the candidates found by the name index
+    @Query("select p from Product p where p.id in :ids and lower(p.name) like lower(concat('%', :searchTerm, '%'))")
+    Page<Product> searchAmong(@Param("searchTerm") String searchTerm, @Param("ids") Collection<UUID> ids, Pageable pageable);
+
     // Pageable allows pagination and flexibility for clients
     Page<Product> findAll(Pageable pageable);
 
+    // Slice variants of findAll(), search() and searchAmong(), skipping the COUNT query behind Page totals
+    @Query("select p from Product p")
+    Slice<Product> findAllSliced(Pageable pageable);
+
+    @Query("select p from Product p where lower(p.name) like lower(concat('%', :searchTerm, '%'))")
+    Slice<Product> searchSliced(@Param("searchTerm") String searchTerm, Pageable pageable);
+
+    @Query("select p from Product p where p.id in :ids and lower(p.name) like lower(concat('%', :searchTerm, '%'))")
+    Slice<Product> searchAmongSliced(@Param("searchTerm") String searchTerm, @Param("ids") Collection<UUID> ids, Pageable pageable);
+
+    // Keyset pagination: products after the given (name, id) position, in that order.
+    // No offset rows to skip, so every page costs the same regardless of its depth.
+    @Query("select p from Product p where (p.name, p.id) > (:name, :id) order by p.name, p.id")
+    List<Product> findAfter(@Param("name") String name, @Param("id") UUID id, Limit limit);
+
+    // Keyset counterpart of search()
+    @Query("select p from Product p where (p.name, p.id) > (:name, :id)"
+            + " and lower(p.name) like lower(concat('%', :searchTerm, '%')) order by p.name, p.id")
+    List<Product> searchAfter(@Param("searchTerm") String searchTerm,
+            @Param("name") String name, @Param("id") UUID id, Limit limit);
+
+    // Keyset counterpart of searchAmong()
+    @Query("select p from Product p where p.id in :ids and (p.name, p.id) > (:name, :id)"
+            + " and lower(p.name) like lower(concat('%', :searchTerm, '%')) order by p.name, p.id")
+    List<Product> searchAmongAfter(@Param("searchTerm") String searchTerm, @Param("ids") Collection<UUID> ids,
+            @Param("name") String name, @Param("id") UUID id, Limit limit);
+
+    // Products of one currency with an amount within the bounds, in minor units, found through
+    // the (currency, amount, id) index
+    @Query("select p from Product p where p.price.currency = :currency and p.price.amount between :min and :max")
+    Page<Product> findByPrice(@Param("currency") Currency currency, @Param("min") long min, @Param("max") long max,
+            Pageable pageable);
+
+    @Query("select p from Product p where p.price.currency = :currency and p.price.amount between :min and :max")
+    Slice<Product> findByPriceSliced(@Param("currency") Currency currency, @Param("min") long min,
+            @Param("max") long max, Pageable pageable);
+
+    // Totals of the projected counterparts of findByPrice(), search() and searchAmong()
+    @Query("select count(p) from Product p where p.price.currency = :currency and p.price.amount between :min and :max")
+    long countByPrice(@Param("currency") Currency currency, @Param("min") long min, @Param("max") long max);
+
+    @Query("select count(p) from Product p where lower(p.name) like lower(concat('%', :searchTerm, '%'))")
+    long countSearch(@Param("searchTerm") String searchTerm);
+
+    @Query("select count(p) from Product p where p.id in :ids and lower(p.name) like lower(concat('%', :searchTerm, '%'))")
+    long countSearchAmong(@Param("searchTerm") String searchTerm, @Param("ids") Collection<UUID> ids);
+
+    // The cheapest products of one currency, in the index order so that only the first rows
+    // are read. Ordering by currency too lets the database see that.
+    @Query("select p from Product p where p.price.currency = :currency"
+            + " order by p.price.currency, p.price.amount, p.id")
+    List<Product> findCheapest(@Param("currency") Currency currency, Limit limit);
+
+    // All live products, read through a cursor in fetch-size batches rather than loaded at
+    // once. The stream must be consumed and closed within a transaction.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("select p from Product p")
+    Stream<Product> streamAll();
+
+    // Ids, names and versions only, for building the in-memory name index
+    @Query("select p.id as id, p.name as name, p.version as version from Product p")
+    List<ProductNameView> findAllNames();
+
+    // Names starting with the prefix, or having a word that does, ignoring case. Stands in for
+    // the name index until it is built. The prefix comes with its LIKE metacharacters escaped.
+    @Query("select p.id as id, p.name as name, p.version as version from Product p"
+            + " where lower(p.name) like concat(lower(:prefix), '%') escape '\\'"
+            + " or lower(p.name) like concat('% ', lower(:prefix), '%') escape '\\' order by lower(p.name), p.id")
+    List<ProductNameView> suggest(@Param("prefix") String prefix, Limit limit);
+
 }
@@ -0,0 +1,105 @@
+package com.example.store.security.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.example.store.security.service.TokenService;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Access control of the reactive read API, the counterpart of SecurityConfig's rule for
+ * GET /products/**: the User role, from a bearer token when tokens are enabled, or from HTTP
+ * Basic. Basic credentials are checked off the event loop, the user lookup and BCrypt blocking.
+ * Not active under the integration tests profile, as SecurityConfig.
+ */
+@Component
+@Profile("!IntegrationTest")
+@ConditionalOnProperty(name = "store.reactive.enabled", havingValue = "true")
+public class ReactiveSecurityFilter implements WebFilter {
+
+    private static final String REQUIRED_AUTHORITY = "ROLE_User";
+    private static final String BEARER = "Bearer ";
+    private static final String BASIC = "Basic ";
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    // Only present when bearer tokens are enabled
+    @Autowired(required = false)
+    private TokenService tokenService;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        Mono<Optional<Collection<? extends GrantedAuthority>>> authorities;
+        if (header != null && tokenService != null && header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            authorities = Mono.just(tokenService.verify(header.substring(BEARER.length()).trim())
+                    .map(Authentication::getAuthorities));
+        } else if (header != null && header.regionMatches(true, 0, BASIC, 0, BASIC.length())) {
+            authorities = Mono.fromCallable(() -> basic(header.substring(BASIC.length()).trim())
+                            .<Collection<? extends GrantedAuthority>>map(UserDetails::getAuthorities))
+                    .subscribeOn(Schedulers.boundedElastic());
+        } else {
+            authorities = Mono.just(Optional.empty());
+        }
+        return authorities.flatMap(granted -> {
+            if (granted.isEmpty()) {
+                exchange.getResponse().getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"Realm\"");
+                return reject(exchange, HttpStatus.UNAUTHORIZED);
+            }
+            if (granted.get().stream().noneMatch(authority -> REQUIRED_AUTHORITY.equals(authority.getAuthority()))) {
+                return reject(exchange, HttpStatus.FORBIDDEN);
+            }
+            return chain.filter(exchange);
+        });
+    }
+
+    // The user, if the credentials are valid
+    private Optional<UserDetails> basic(String credentials) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getDecoder().decode(credentials), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        int separator = decoded.indexOf(':');
+        if (separator < 0) {
+            return Optional.empty();
+        }
+        try {
+            UserDetails user = userDetailsService.loadUserByUsername(decoded.substring(0, separator));
+            return passwordEncoder.matches(decoded.substring(separator + 1), user.getPassword())
+                    ? Optional.of(user) : Optional.empty();
+        } catch (UsernameNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status) {
+        exchange.getResponse().setStatusCode(status);
+        return exchange.getResponse().setComplete();
+    }
+}
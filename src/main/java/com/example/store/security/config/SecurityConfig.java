@@ -9,9 +9,13 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.http.HttpMethod;
 
+import com.example.store.security.service.TokenService;
+
 /**
  * Access control configuration for the application. It's not active under the 
  * integration tests profile, to allow tests run without a login
@@ -24,6 +28,10 @@ public class SecurityConfig {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    // Only present when bearer tokens are enabled
+    @Autowired(required = false)
+    private TokenService tokenService;
+
     // Default password encoder
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -34,10 +42,13 @@ public class SecurityConfig {
     // a more centralized solution was preferred, leveraging the REST approach. All requests are 
     // authenticated (except login/logout), DB chaniging web methods requiring Administrator role.
     // GET calls only require User role. There was no use case for other verbs to be implemented.
+    // The audit trail is for administrators only. Health and metrics are open for probes and scrapers.
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests(
                 request -> request
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                        .requestMatchers("/audit/**").hasRole("Administrator")
                         .requestMatchers(HttpMethod.POST, "/products/**").hasRole("Administrator")
                         .requestMatchers(HttpMethod.PUT, "/products/**").hasRole("Administrator")
                         .requestMatchers(HttpMethod.PATCH, "/products/**").hasRole("Administrator")
@@ -50,6 +61,13 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .userDetailsService(userDetailsService);
 
+        // Scripted clients log in once, over HTTP Basic, for a token verified without the
+        // users table or a session. Form login stays as it is.
+        if (tokenService != null) {
+            http.addFilterBefore(new BearerTokenFilter(tokenService), UsernamePasswordAuthenticationFilter.class)
+                    .httpBasic(Customizer.withDefaults());
+        }
+
         return http.build();
     }
 }
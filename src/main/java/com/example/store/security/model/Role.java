@@ -1,14 +1,18 @@
 package com.example.store.security.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 
+import com.example.store.security.service.UserChangeListener;
+
 /**
  * Entity for roles
  */
 @Entity
+@EntityListeners(UserChangeListener.class)
 public class Role {
 
     @Id
@@ -3,17 +3,25 @@ package com.example.store.security.model;
 import java.util.Set;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import com.example.store.security.service.UserChangeListener;
 
 /**
- * Entity for users. It has a M:M relation with Roles.
+ * Entity for users. It has a M:M relation with Roles. It is versioned, so that a change
+ * of its roles alone also updates its row, and reaches UserChangeListener.
  */
 @Entity
+@EntityListeners(UserChangeListener.class)
 @Table(name = "users")
 public class User {
 
@@ -23,6 +31,11 @@ public class User {
 
     private String username;
     private String password;
+
+    // Bumped by role changes too, the collection being owned by the user
+    @Version
+    @ColumnDefault("0")
+    private long version;
     
     @ManyToMany(fetch = FetchType.EAGER)
     private Set<Role> roles;
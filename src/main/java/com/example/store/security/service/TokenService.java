@@ -0,0 +1,148 @@
+package com.example.store.security.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+/**
+ * Issues and verifies short-lived bearer tokens, signed with HMAC-SHA256. A token carries the
+ * username, the authorities and the expiry, so verifying it needs neither the users table nor
+ * a session: "keyId.payload.signature", both parts being base64url.
+ *
+ * Keys are configured as "id:base64secret" entries. The first signs new tokens and all of them
+ * verify, so a key is rotated by putting its successor first, and retired by removing it once
+ * the tokens it signed have expired. Without keys, a random one is generated at start-up,
+ * which only suits a single node and invalidates tokens on restart.
+ */
+@Service
+@ConditionalOnProperty(name = "store.security.token.enabled", havingValue = "true")
+public class TokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String GENERATED_KEY_ID = "local";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Map<String, SecretKeySpec> keys = new LinkedHashMap<>();
+    private final String signingKeyId;
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(
+            @Value("${store.security.token.keys:}") List<String> keys,
+            @Value("${store.security.token.ttl:PT15M}") Duration ttl) {
+        this(keys, ttl, Clock.systemUTC());
+    }
+
+    TokenService(List<String> keys, Duration ttl, Clock clock) {
+        for (String entry : keys) {
+            int separator = entry.indexOf(':');
+            if (separator < 1 || entry.substring(0, separator).contains(".")) {
+                throw new IllegalArgumentException("Token keys are expected as id:base64secret, without dots in the id");
+            }
+            byte[] secret = Base64.getDecoder().decode(entry.substring(separator + 1).trim());
+            if (secret.length < 32) {
+                throw new IllegalArgumentException("Token key " + entry.substring(0, separator) + " is shorter than 256 bits");
+            }
+            this.keys.put(entry.substring(0, separator).trim(), new SecretKeySpec(secret, ALGORITHM));
+        }
+        if (this.keys.isEmpty()) {
+            logger.warn("No store.security.token.keys configured, signing tokens with a generated key");
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            this.keys.put(GENERATED_KEY_ID, new SecretKeySpec(secret, ALGORITHM));
+        }
+        this.signingKeyId = this.keys.keySet().iterator().next();
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    // Token for an authenticated user, expiring after the TTL
+    public String issue(Authentication authentication) {
+        String authorities = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        long expires = clock.instant().plus(ttl).getEpochSecond();
+        // Username last, as the only part that may hold the separators
+        String payload = ENCODER.encodeToString(
+                (expires + "\n" + authorities + "\n" + authentication.getName()).getBytes(StandardCharsets.UTF_8));
+        String signed = signingKeyId + "." + payload;
+        return signed + "." + ENCODER.encodeToString(sign(keys.get(signingKeyId), signed));
+    }
+
+    // The authentication a token stands for, empty when it's malformed, expired, or not signed
+    // by a current key
+    public Optional<Authentication> verify(String token) {
+        int first = token.indexOf('.');
+        int last = token.lastIndexOf('.');
+        if (first < 1 || last == first) {
+            return Optional.empty();
+        }
+        SecretKeySpec key = keys.get(token.substring(0, first));
+        if (key == null) {
+            return Optional.empty();
+        }
+        String[] claims;
+        try {
+            byte[] signature = DECODER.decode(token.substring(last + 1));
+            if (!MessageDigest.isEqual(signature, sign(key, token.substring(0, last)))) {
+                return Optional.empty();
+            }
+            claims = new String(DECODER.decode(token.substring(first + 1, last)), StandardCharsets.UTF_8).split("\n", 3);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (claims.length != 3 || clock.instant().getEpochSecond() >= Long.parseLong(claims[0])) {
+            return Optional.empty();
+        }
+        Collection<GrantedAuthority> authorities = new ArrayList<>();
+        for (String authority : claims[1].split(",")) {
+            if (!authority.isEmpty()) {
+                authorities.add(new SimpleGrantedAuthority(authority));
+            }
+        }
+        return Optional.of(UsernamePasswordAuthenticationToken.authenticated(claims[2], null, authorities));
+    }
+
+    private static byte[] sign(SecretKeySpec key, String content) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can't sign with " + ALGORITHM, e);
+        }
+    }
+}
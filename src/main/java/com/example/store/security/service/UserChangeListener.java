@@ -0,0 +1,42 @@
+package com.example.store.security.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.store.security.model.User;
+import com.example.store.util.TransactionHooks;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA listener of User and Role, evicting the users they affect from UserDetailsCache once
+ * the writing transaction ends. Hibernate gets it from the Spring context, hence the injection.
+ *
+ * A new user only evicts its own name. Updated or removed users clear the whole cache, as
+ * the entity only holds the new username of a renamed user, the old one being cached too.
+ * Role changes of a user reach here as updates of the user, through its version.
+ */
+public class UserChangeListener {
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @PostPersist
+    public void created(Object entity) {
+        if (entity instanceof User user) {
+            String username = user.getUsername();
+            userDetailsCache.invalidate(username);
+            TransactionHooks.afterCompletion(() -> userDetailsCache.invalidate(username));
+        } else {
+            changed(entity);
+        }
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        userDetailsCache.invalidateAll();
+        TransactionHooks.afterCompletion(userDetailsCache::invalidateAll);
+    }
+}
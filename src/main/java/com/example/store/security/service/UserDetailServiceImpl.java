@@ -1,6 +1,8 @@
 package com.example.store.security.service;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,23 +17,45 @@ import com.example.store.security.model.User;
 import com.example.store.security.repository.UserRepository;
 
 /**
- * Service for SecurityConfig
+ * Service for SecurityConfig. Resolved users are cached by UserDetailsCache, and authorities
+ * are shared, one instance per role.
  */
 @Service
 public class UserDetailServiceImpl implements UserDetailsService {
 
+    private static final Map<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.get(username).orElseGet(() -> {
+            long generation = userDetailsCache.generation();
+            UserDetails userDetails = load(username);
+            userDetailsCache.put(userDetails, generation);
+            // The cached instance stays private, its credentials being erased after use
+            return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).build();
+        });
+    }
+
+    // Unknown usernames aren't cached, so they always reach the database
+    private UserDetails load(String username) {
         User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new UsernameNotFoundException(username));
 
         Set<GrantedAuthority> authorities = user.getRoles().stream()
-            .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
+            .map(role -> authority(role.getName()))
             .collect(Collectors.toSet());
 
         return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), authorities);
     }
+
+    // The shared authority of a role
+    static GrantedAuthority authority(String roleName) {
+        return AUTHORITIES.computeIfAbsent(roleName, name -> new SimpleGrantedAuthority("ROLE_" + name));
+    }
 }
@@ -0,0 +1,91 @@
+package com.example.store.security.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of resolved users by username, in front of UserDetailServiceImpl. Entries
+ * expire after a TTL, so changes made outside the application are picked up eventually,
+ * and are invalidated by UserChangeListener when users or roles are written through JPA.
+ * As in ProductCache, a generation keeps a load that read a user before an invalidation from
+ * putting it back afterwards.
+ *
+ * Callers get a copy of the cached user, as authentication erases the credentials of the
+ * instance it was given. Hits, misses and the hit ratio are published as metrics.
+ */
+@Component
+public class UserDetailsCache {
+
+    public static final String NAME = "users";
+    public static final String HIT_RATIO = "store.users.cache.hit.ratio";
+
+    private final Cache<String, UserDetails> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public UserDetailsCache(
+            @Value("${store.cache.user.max-size:1000}") long maxSize,
+            @Value("${store.cache.user.ttl:PT5M}") Duration ttl,
+            MeterRegistry registry) {
+        this(maxSize, ttl, Ticker.systemTicker(), registry);
+    }
+
+    UserDetailsCache(long maxSize, Duration ttl, Ticker ticker, MeterRegistry registry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+        Gauge.builder(HIT_RATIO, cache, c -> c.stats().hitRate())
+                .description("Share of user lookups served from the cache")
+                .register(registry);
+    }
+
+    public Optional<UserDetails> get(String username) {
+        UserDetails user = cache.getIfPresent(username);
+        return user == null ? Optional.empty() : Optional.of(User.withUserDetails(user).build());
+    }
+
+    // To be read before loading a user meant for put()
+    public long generation() {
+        return generation.get();
+    }
+
+    // Cache a user loaded when generation() returned the given value
+    public void put(UserDetails user, long loadedAt) {
+        cache.asMap().compute(user.getUsername(), (username, current) -> generation.get() == loadedAt ? user : current);
+    }
+
+    public void invalidate(String username) {
+        generation.incrementAndGet();
+        cache.invalidate(username);
+    }
+
+    // For changes that may touch any user, such as a role being renamed
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
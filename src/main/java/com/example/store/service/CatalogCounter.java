@@ -0,0 +1,35 @@
+package com.example.store.service;
+
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Live product count, maintained incrementally by ProductService so unfiltered listings
+ * can report totals without a COUNT query. Empty until initialized from the database.
+ */
+@Component
+public class CatalogCounter {
+
+    private static final long UNKNOWN = -1;
+
+    private final AtomicLong liveProducts = new AtomicLong(UNKNOWN);
+
+    public OptionalLong liveProducts() {
+        long count = liveProducts.get();
+        return count == UNKNOWN ? OptionalLong.empty() : OptionalLong.of(count);
+    }
+
+    public void initialize(long count) {
+        liveProducts.set(count);
+    }
+
+    public void increment() {
+        liveProducts.updateAndGet(count -> count == UNKNOWN ? UNKNOWN : count + 1);
+    }
+
+    public void decrement() {
+        liveProducts.updateAndGet(count -> count == UNKNOWN ? UNKNOWN : Math.max(0, count - 1));
+    }
+}
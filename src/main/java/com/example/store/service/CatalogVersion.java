@@ -0,0 +1,48 @@
+package com.example.store.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.example.store.util.TransactionHooks;
+
+/**
+ * Catalog-wide write generation and last modification time, behind the ETag and
+ * Last-Modified of list pages. The ETag includes the start-up time, as the generation
+ * starts over on restart. It is weak, a page being the same in every format and encoding
+ * it is served in, which also leaves it to Tomcat to compress pages.
+ */
+@Component
+public class CatalogVersion {
+
+    // Tells generations of different runs apart
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long lastModified = System.currentTimeMillis();
+
+    public long generation() {
+        return generation.get();
+    }
+
+    // Weak ETag of the current generation
+    public String etag() {
+        return "W/\"" + epoch + "-" + generation.get() + "\"";
+    }
+
+    // Epoch millis of the last change, or of the start-up
+    public long lastModified() {
+        return lastModified;
+    }
+
+    // Bump right away, for reads later in the writing transaction, and again once it ends,
+    // so a validator read while the write was pending never matches the committed data
+    public void changed() {
+        bump();
+        TransactionHooks.afterCompletion(this::bump);
+    }
+
+    private void bump() {
+        generation.incrementAndGet();
+        lastModified = System.currentTimeMillis();
+    }
+}
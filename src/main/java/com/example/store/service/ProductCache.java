@@ -0,0 +1,96 @@
+package com.example.store.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.store.model.Product;
+import com.example.store.util.TransactionHooks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded read-through cache of products by Id, in front of ProductService.findById().
+ * Entries expire after a TTL or get evicted by size, and are invalidated by every write.
+ *
+ * A write generation guards against a reader putting back a product it loaded before a
+ * write committed: loads only get cached if no invalidation happened since they started.
+ * Products read inside a transaction are never cached, as they may not be committed yet.
+ * Hits, misses, evictions and the size are published as the "products" cache metrics.
+ */
+@Component
+public class ProductCache {
+
+    public static final String NAME = "products";
+
+    private final Cache<UUID, Product> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public ProductCache(
+            @Value("${store.cache.product.max-size:10000}") long maxSize,
+            @Value("${store.cache.product.ttl:PT10M}") Duration ttl,
+            MeterRegistry registry) {
+        this(maxSize, ttl, Ticker.systemTicker(), registry);
+    }
+
+    ProductCache(long maxSize, Duration ttl, Ticker ticker, MeterRegistry registry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+
+    public Optional<Product> get(UUID id) {
+        return Optional.ofNullable(cache.getIfPresent(id));
+    }
+
+    // To be read before loading a product meant for put()
+    public long generation() {
+        return generation.get();
+    }
+
+    // Cache a product loaded when generation() returned the given value
+    public void put(Product product, long loadedAt) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        cache.asMap().compute(product.getId(), (id, current) -> generation.get() == loadedAt ? product : current);
+    }
+
+    // Drop a product right away, for reads later in the writing transaction, and again once
+    // it ends, for the loads that raced with it
+    public void invalidate(UUID id) {
+        evict(id);
+        TransactionHooks.afterCompletion(() -> evict(id));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    // Exposed for tests, as Caffeine evicts lazily
+    public long estimatedSize() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private void evict(UUID id) {
+        generation.incrementAndGet();
+        cache.invalidate(id);
+    }
+}
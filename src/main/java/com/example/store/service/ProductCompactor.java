@@ -0,0 +1,149 @@
+package com.example.store.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.store.dto.CompactionReport;
+import com.example.store.repository.ProductArchiveRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Moves soft-deleted products older than the retention window from the product table to
+ * product_archive, keeping the table and its indexes to live products and recent deletes.
+ * Runs on a fixed delay, and on demand through POST /products/archive.
+ *
+ * Products move in small batches of one transaction each, oldest first, with a pause between
+ * batches so that live queries and writes get the database in between. One run at a time:
+ * a run asked for while another is going returns nothing. Progress is published as the rows
+ * archived, the batch durations and the rows still due in the current run.
+ */
+@Component
+public class ProductCompactor {
+
+    public static final String ARCHIVED = "store.products.archived";
+    public static final String BATCHES = "store.products.compaction.batches";
+    public static final String PENDING = "store.products.compaction.pending";
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCompactor.class);
+
+    // Scheduled runs only, the manual trigger staying available
+    @Value("${store.compaction.enabled:true}")
+    private boolean enabled = true;
+
+    // How long deleted products stay in the product table
+    @Value("${store.compaction.retention:P30D}")
+    private Duration retention = Duration.ofDays(30);
+
+    @Value("${store.compaction.batch-size:500}")
+    private int batchSize = 500;
+
+    // Pause between batches, throttling a run
+    @Value("${store.compaction.pause:PT0.1S}")
+    private Duration pause = Duration.ofMillis(100);
+
+    @Autowired
+    private ProductArchiveRepository archiveRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock running = new ReentrantLock();
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter archived;
+    private final Timer batches;
+
+    public ProductCompactor(MeterRegistry registry) {
+        this.archived = Counter.builder(ARCHIVED)
+                .description("Deleted products moved to the archive")
+                .register(registry);
+        this.batches = Timer.builder(BATCHES)
+                .description("Compaction batches, one transaction each")
+                .register(registry);
+        Gauge.builder(PENDING, pending, AtomicLong::get)
+                .description("Deleted products still due in the current compaction run")
+                .register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${store.compaction.interval:PT1H}", fixedDelayString = "${store.compaction.interval:PT1H}")
+    public void scheduled() {
+        if (enabled) {
+            compact().ifPresent(report -> {
+                if (report.getArchived() > 0) {
+                    logger.info("Archived {} deleted products in {} batches, {} ms", report.getArchived(),
+                            report.getBatches(), report.getElapsedMillis());
+                }
+            });
+        }
+    }
+
+    // Archive the products deleted before the retention window, empty if a run is going already
+    public Optional<CompactionReport> compact() {
+        return compact(Instant.now().minus(retention));
+    }
+
+    Optional<CompactionReport> compact(Instant cutoff) {
+        if (!running.tryLock()) {
+            return Optional.empty();
+        }
+        long started = System.nanoTime();
+        CompactionReport report = new CompactionReport(cutoff);
+        try {
+            pending.set(archiveRepository.countDeletedBefore(cutoff));
+            boolean more = true;
+            while (more) {
+                int moved = batches.record(() -> transactionTemplate.execute(status -> archiveBatch(cutoff)));
+                if (moved > 0) {
+                    report.archived(moved);
+                    archived.increment(moved);
+                }
+                pending.updateAndGet(count -> Math.max(0, count - moved));
+                // A short batch was the last one
+                more = moved == batchSize && pause();
+            }
+        } finally {
+            pending.set(0);
+            running.unlock();
+        }
+        report.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return Optional.of(report);
+    }
+
+    // Products copied to the archive, then removed, both seeing the same rows
+    private int archiveBatch(Instant cutoff) {
+        List<UUID> ids = archiveRepository.findDeletedBefore(cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archiveRepository.copyToArchive(ids, Instant.now());
+        return archiveRepository.purge(ids);
+    }
+
+    // False if interrupted, ending the run early
+    private boolean pause() {
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
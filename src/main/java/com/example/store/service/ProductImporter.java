@@ -0,0 +1,260 @@
+package com.example.store.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.store.dto.ImportReport;
+import com.example.store.model.Price;
+import com.example.store.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk import of product files, read row by row so that memory use doesn't grow with the
+ * upload. Valid rows are created or updated by their Ids through ProductService.upsertAll(),
+ * one chunk at a time. Rows failing to parse or validate, and rows failing to write, are
+ * reported without stopping the import.
+ */
+@Service
+public class ProductImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImporter.class);
+
+    // CSV columns, matched case-insensitively against the header. Id is optional.
+    public static final String ID_COLUMN = "id";
+    public static final String NAME_COLUMN = "name";
+    public static final String AMOUNT_COLUMN = "amount";
+    public static final String CURRENCY_COLUMN = "currency";
+
+    private static final CsvMapper csvMapper = new CsvMapper();
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    // Same chunk size as the batch endpoints, each chunk being a transaction
+    @Value("${store.batch.chunk-size:" + ProductService.DEFAULT_BATCH_CHUNK_SIZE + "}")
+    private int chunkSize = ProductService.DEFAULT_BATCH_CHUNK_SIZE;
+
+    // Import newline-delimited JSON, one product per line. Each line gets its own parser,
+    // so a malformed line only rejects itself. Blank lines are skipped.
+    public ImportReport importNdjson(InputStream in) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(Product.class);
+        Chunk chunk = new Chunk();
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long row = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.report.read();
+            try {
+                Product product = reader.readValue(line);
+                // A bare null is valid JSON, but no product
+                if (product == null) {
+                    chunk.report.reject(row, "Malformed row: not a JSON object");
+                    continue;
+                }
+                chunk.add(row, product);
+            } catch (JsonProcessingException e) {
+                chunk.report.reject(row, "Malformed row: " + e.getOriginalMessage());
+            }
+        }
+        return chunk.finish();
+    }
+
+    // Import CSV with a header row naming the columns. Rows are read as plain values and
+    // converted here, so a bad value only rejects its row. A malformed CSV stream stops
+    // the import, the rows before it staying imported.
+    public ImportReport importCsv(InputStream in) throws IOException {
+        Chunk chunk = new Chunk();
+        try (MappingIterator<String[]> rows = csvMapper.readerFor(String[].class)
+                .with(CsvParser.Feature.WRAP_AS_ARRAY)
+                .readValues(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            if (!rows.hasNextValue()) {
+                return chunk.finish();
+            }
+            Map<String, Integer> columns = columns(rows.nextValue());
+            long row = 0;
+            try {
+                while (rows.hasNextValue()) {
+                    String[] values = rows.nextValue();
+                    row++;
+                    chunk.report.read();
+                    try {
+                        chunk.add(row, toProduct(columns, values));
+                    } catch (IllegalArgumentException e) {
+                        chunk.report.reject(row, e.getMessage());
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                chunk.report.reject(row + 1, "Malformed CSV, import stopped: " + e.getOriginalMessage());
+            }
+        }
+        return chunk.finish();
+    }
+
+    // Column positions by name. Name, amount and currency are required.
+    private static Map<String, Integer> columns(String[] header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            columns.put(header[i].strip().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of(NAME_COLUMN, AMOUNT_COLUMN, CURRENCY_COLUMN)) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Missing CSV column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    // Build a product from a CSV row. A missing Id gets a new one, same as for JSON payloads.
+    private static Product toProduct(Map<String, Integer> columns, String[] values) {
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d values, found %d", columns.size(), values.length));
+        }
+        Product product = new Product();
+        String id = value(columns, values, ID_COLUMN);
+        if (id != null) {
+            product.setId(UUID.fromString(id));
+        }
+        product.setName(value(columns, values, NAME_COLUMN));
+
+        String amount = value(columns, values, AMOUNT_COLUMN);
+        String currency = value(columns, values, CURRENCY_COLUMN);
+        if (amount != null || currency != null) {
+            // The amount being a primitive, a missing one would otherwise read as zero
+            if (amount == null) {
+                throw new IllegalArgumentException("Missing amount");
+            }
+            Price price = new Price();
+            try {
+                price.setAmount(new BigDecimal(amount));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid amount: " + amount);
+            }
+            if (currency != null) {
+                try {
+                    price.setCurrency(Currency.getInstance(currency));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid currency: " + currency);
+                }
+            }
+            product.setPrice(price);
+        }
+        return product;
+    }
+
+    // Stripped value of a column, null when the column is absent or the value blank
+    private static String value(Map<String, Integer> columns, String[] values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || values[index].isBlank()) {
+            return null;
+        }
+        return values[index].strip();
+    }
+
+    // Fresh instance of a row, the one of a rolled back chunk having been through persist()
+    private static Product copy(Product product) {
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setPrice(product.getPrice());
+        return copy;
+    }
+
+    /**
+     * Rows pending to be written, along with the report of the whole import.
+     */
+    private class Chunk {
+
+        private final ImportReport report = new ImportReport();
+        private final long started = System.nanoTime();
+        private final List<Product> products = new ArrayList<>();
+        private final List<Long> rows = new ArrayList<>();
+
+        // Validate a parsed row and queue it, writing the chunk once full
+        private void add(long row, Product product) {
+            Set<ConstraintViolation<Product>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                report.reject(row, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            products.add(product);
+            rows.add(row);
+            if (products.size() >= Math.max(1, chunkSize)) {
+                write();
+            }
+        }
+
+        // A failed chunk is rolled back as a whole, then written again row by row, each row
+        // in a transaction of its own, so that only the failing rows are rejected
+        private void write() {
+            if (products.isEmpty()) {
+                return;
+            }
+            try {
+                productService.upsertAll(products);
+                report.imported(products.size());
+            } catch (RuntimeException e) {
+                logger.warn("Import chunk of {} rows failed, writing it row by row: {}", products.size(),
+                        e.getMessage());
+                for (int i = 0; i < products.size(); i++) {
+                    try {
+                        productService.upsertAll(List.of(copy(products.get(i))));
+                        report.imported(1);
+                    } catch (RuntimeException rowFailure) {
+                        report.reject(rows.get(i), "Write failed: " + rowFailure.getMessage());
+                    }
+                }
+            }
+            products.clear();
+            rows.clear();
+        }
+
+        private ImportReport finish() {
+            write();
+            report.finish((System.nanoTime() - started) / 1_000_000);
+            logger.info("Imported {} of {} rows in {} ms ({} rows/s)", report.getImported(), report.getProcessed(),
+                    report.getElapsedMillis(), Math.round(report.getRowsPerSecond()));
+            return report;
+        }
+    }
+}
@@ -1,73 +1,462 @@
 package com.example.store.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
 
+import com.example.store.repository.ProductArchiveRepository;
 import com.example.store.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.example.store.dto.Cursor;
+import com.example.store.dto.PriceFilter;
+import com.example.store.dto.ProductField;
+import com.example.store.dto.ProductSuggestion;
+import com.example.store.index.ProductNameIndex;
+import com.example.store.metrics.ProductMetrics;
 import com.example.store.model.Product;
 import com.example.store.model.Price;
 import com.example.store.util.ProductUpdater;
+import com.example.store.util.TransactionHooks;
 
 /**
  * Service class for products. The most meaningful implementation is for PUT,
  * where it either creates or updates a fiven resource, depending if it's already
  * present in the database or not. Empty optionals are handled by the controller.
+ * PUT is written with a database-side MERGE statement, without reading the product
+ * first, and can be made conditional on the product's version (If-Match).
+ *
+ * Name changes are mirrored in the in-memory name index once committed. The live product
+ * counter is updated right away instead, to count the caller's own writes, and reverted
+ * on rollback. Every write invalidates the product in the findById() cache and moves
+ * the catalog version, which validates the ETags of list pages.
+ *
+ * Calls are timed by ProductMetricsAspect. Outcomes only known here (not found, created or
+ * updated, search result sizes) are counted through ProductMetrics.
  */
 @Service
 public class ProductService {
 
+    public static final int DEFAULT_BATCH_CHUNK_SIZE = 500;
+
     @Autowired
     private ProductRepository productRepository;
 
-    // Get a specific product
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Number of products committed per transaction by the bulk methods
+    @Value("${store.batch.chunk-size:" + DEFAULT_BATCH_CHUNK_SIZE + "}")
+    private int batchChunkSize = DEFAULT_BATCH_CHUNK_SIZE;
+
+    @Autowired
+    private ProductNameIndex productNameIndex;
+
+    @Autowired
+    private ProductArchiveRepository productArchiveRepository;
+
+    @Autowired
+    private CatalogCounter catalogCounter;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductMetrics productMetrics;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    // Build the name index and the live product counter from the start-up data set
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndexes() {
+        catalogCounter.initialize(productRepository.count());
+        productNameIndex.rebuild(productRepository::findAllNames);
+    }
+
+    // Get a specific product, through the cache
     public Optional<Product> findById(UUID id) {
-        return productRepository.findById(id);
+        Optional<Product> cached = productCache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long generation = productCache.generation();
+        Optional<Product> product = productRepository.findById(id);
+        product.ifPresentOrElse(found -> productCache.put(found, generation), () -> productMetrics.notFound("findById"));
+        return product;
     }
 
-    // Lists products by page
+    // Lists products by page. Totals come from the live product counter once it's initialized.
     public Page<Product> list(Pageable pageable) {
-        return productRepository.findAll(pageable);
+        OptionalLong liveProducts = catalogCounter.liveProducts();
+        if (liveProducts.isEmpty()) {
+            return productRepository.findAll(pageable);
+        }
+        return new PageImpl<>(productRepository.findAllSliced(pageable).getContent(), pageable,
+                liveProducts.getAsLong());
+    }
+
+    // Lists products by page, without totals
+    public Slice<Product> listSlice(Pageable pageable) {
+        return productRepository.findAllSliced(pageable);
+    }
+
+    // Lists products in a price range of one currency by page, through the price index
+    public Page<Product> listByPrice(PriceFilter filter, Pageable pageable) {
+        return productRepository.findByPrice(filter.getCurrency(), filter.minUnits(), filter.maxUnits(), pageable);
+    }
+
+    // Same as listByPrice(), without totals
+    public Slice<Product> listByPriceSlice(PriceFilter filter, Pageable pageable) {
+        return productRepository.findByPriceSliced(filter.getCurrency(), filter.minUnits(), filter.maxUnits(),
+                pageable);
+    }
+
+    // The n cheapest products in a currency, cheapest first, ties in Id order
+    public List<Product> cheapest(Currency currency, int n) {
+        return productRepository.findCheapest(currency, Limit.of(n));
+    }
+
+    // Given fields of products by page, only their columns being selected. Filtered by price
+    // when the filter isn't empty, totals coming from the live product counter otherwise.
+    public Page<Map<String, Object>> listFields(Set<ProductField> fields, PriceFilter filter, Pageable pageable) {
+        if (!filter.isEmpty()) {
+            return PageableExecutionUtils.getPage(productRepository.findFieldsByPrice(fields, filter.getCurrency(),
+                    filter.minUnits(), filter.maxUnits(), pageable), pageable,
+                    () -> productRepository.countByPrice(filter.getCurrency(), filter.minUnits(), filter.maxUnits()));
+        }
+        OptionalLong liveProducts = catalogCounter.liveProducts();
+        return PageableExecutionUtils.getPage(productRepository.findFields(fields, pageable), pageable,
+                () -> liveProducts.isPresent() ? liveProducts.getAsLong() : productRepository.count());
+    }
+
+    // Given fields of a product, from the cache as findById()
+    public Optional<Map<String, Object>> findFieldsById(UUID id, Set<ProductField> fields) {
+        return findById(id).map(product -> ProductField.of(product, fields));
     }
 
-    // Searches by name fragment and responds by page
+    // Same as search(), for the given fields only
+    public Page<Map<String, Object>> searchFields(Set<ProductField> fields, String searchTerm, Pageable pageable) {
+        Optional<Set<UUID>> candidates = productNameIndex.candidates(searchTerm);
+        Page<Map<String, Object>> rows;
+        if (candidates.isEmpty()) {
+            rows = PageableExecutionUtils.getPage(productRepository.searchFields(fields, searchTerm, null, pageable),
+                    pageable, () -> productRepository.countSearch(searchTerm));
+        } else if (candidates.get().isEmpty()) {
+            rows = Page.empty(pageable);
+        } else {
+            rows = PageableExecutionUtils.getPage(
+                    productRepository.searchFields(fields, searchTerm, candidates.get(), pageable), pageable,
+                    () -> productRepository.countSearchAmong(searchTerm, candidates.get()));
+        }
+        productMetrics.searched(rows.getNumberOfElements());
+        return rows;
+    }
+
+    // Searches by name fragment and responds by page. The name index narrows down the rows
+    // to check when it can, otherwise the search falls back to scanning all names.
     public Page<Product> search(String searchTerm, Pageable pageable) {
-        return productRepository.search(searchTerm, pageable);
+        Optional<Set<UUID>> candidates = productNameIndex.candidates(searchTerm);
+        if (candidates.isEmpty()) {
+            return searched(productRepository.search(searchTerm, pageable));
+        }
+        if (candidates.get().isEmpty()) {
+            return searched(Page.empty(pageable));
+        }
+        return searched(productRepository.searchAmong(searchTerm, candidates.get(), pageable));
+    }
+
+    // Completions of a name prefix, answered from memory by the name index once it is built,
+    // which writes keep in sync, and by the database before that
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        return productNameIndex.suggest(prefix, limit)
+                .orElseGet(() -> productRepository.suggest(escapeLike(prefix.strip()), Limit.of(limit)).stream()
+                        .map(view -> new ProductSuggestion(view.getId(), view.getName()))
+                        .toList());
     }
 
-    // Create a new product (POST use case)
+    // Same as search(), without totals
+    public Slice<Product> searchSlice(String searchTerm, Pageable pageable) {
+        Optional<Set<UUID>> candidates = productNameIndex.candidates(searchTerm);
+        if (candidates.isEmpty()) {
+            return searched(productRepository.searchSliced(searchTerm, pageable));
+        }
+        if (candidates.get().isEmpty()) {
+            return searched(new SliceImpl<>(List.of(), pageable, false));
+        }
+        return searched(productRepository.searchAmongSliced(searchTerm, candidates.get(), pageable));
+    }
+
+    // Write every live product as newline-delimited JSON. Products are read through a cursor and
+    // written in chunks, each chunk being flushed to the client and then detached, so memory
+    // use doesn't grow with the catalog. Returns the number of products written.
+    @Transactional(readOnly = true)
+    public long export(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Product.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+                Stream<Product> products = productRepository.streamAll()) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (Product product : (Iterable<Product>) products::iterator) {
+                writer.writeValue(generator, product);
+                generator.writeRaw('\n');
+                if (++count % ProductRepository.EXPORT_FETCH_SIZE == 0) {
+                    generator.flush();
+                    productRepository.detachAll();
+                }
+            }
+        }
+        return count;
+    }
+
+    // Lists products after a cursor, in (name, id) order
+    public Slice<Product> listAfter(Cursor cursor, int size) {
+        return toSlice(productRepository.findAfter(cursor.getName(), cursor.getId(), Limit.of(size + 1)), size);
+    }
+
+    // Keyset counterpart of search(), using the name index the same way
+    public Slice<Product> searchAfter(String searchTerm, Cursor cursor, int size) {
+        Optional<Set<UUID>> candidates = productNameIndex.candidates(searchTerm);
+        if (candidates.isEmpty()) {
+            return searched(toSlice(productRepository.searchAfter(searchTerm, cursor.getName(), cursor.getId(),
+                    Limit.of(size + 1)), size));
+        }
+        if (candidates.get().isEmpty()) {
+            return searched(new SliceImpl<>(List.of(), PageRequest.ofSize(size), false));
+        }
+        return searched(toSlice(productRepository.searchAmongAfter(searchTerm, candidates.get(), cursor.getName(),
+                cursor.getId(), Limit.of(size + 1)), size));
+    }
+
+    // Create a new product (POST use case). An Id in the payload is ignored, as in createAll().
+    // The product is persisted, as save() would merge it for its assigned Id, selecting it first.
+    @Transactional
     public Product create(Product product) {
-        return productRepository.save(product);
+        product.setId(UUID.randomUUID());
+        productRepository.persistAll(List.of(product));
+        counted();
+        return indexed(product);
     }
 
-    // Create or update a product (PUT use case)
+    // Create or update a product (PUT use case). Two concurrent calls creating the same
+    // product can't both insert it, the one failing on the key being retried as an update.
     public Product upsert(UUID id, Product product) {
-        return productRepository.findById(id)
-                .map(target -> productRepository.save(ProductUpdater.prepareUpdate(target, product)))
-                .orElseGet(() -> {
-                    product.setId(id);
-                    return productRepository.save(product);
+        try {
+            return merged(id, product, true, null).orElseThrow();
+        } catch (DuplicateKeyException e) {
+            return merged(id, product, true, null).orElseThrow();
+        }
+    }
+
+    // Update an existing product of the given version (PUT with If-Match), any version if
+    // null. Empty if the product is missing or was changed in the meantime.
+    public Optional<Product> updateIfVersion(UUID id, Product product, Long version) {
+        return merged(id, product, false, version);
+    }
+
+    // Create new products in bulk (POST batch use case), one transaction per chunk. Ids
+    // in the payload are ignored, new ones being assigned. Earlier chunks stay committed
+    // if a later one fails.
+    public List<Product> createAll(List<Product> products) {
+        List<Product> created = new ArrayList<>(products.size());
+        for (List<Product> chunk : chunks(products)) {
+            created.addAll(transactionTemplate.execute(status -> {
+                chunk.forEach(product -> product.setId(UUID.randomUUID()));
+                productRepository.persistAll(chunk);
+                productRepository.flushAndClear();
+                chunk.forEach(product -> {
+                    indexed(product);
+                    counted();
                 });
+                return chunk;
+            }));
+        }
+        return created;
     }
 
-    // Change price
+    // Create or update products in bulk by their payload Ids (PUT batch use case), one
+    // transaction per chunk. Existing products of a chunk are loaded with a single query.
+    // If an Id repeats, the last product wins.
+    public List<Product> upsertAll(List<Product> products) {
+        Map<UUID, Product> byId = new LinkedHashMap<>();
+        products.forEach(product -> byId.put(product.getId(), product));
+
+        List<Product> upserted = new ArrayList<>(byId.size());
+        for (List<Product> chunk : chunks(new ArrayList<>(byId.values()))) {
+            upserted.addAll(transactionTemplate.execute(status -> {
+                Map<UUID, Product> existing = new LinkedHashMap<>();
+                productRepository.findAllById(chunk.stream().map(Product::getId).toList())
+                        .forEach(product -> existing.put(product.getId(), product));
+
+                List<Product> results = new ArrayList<>(chunk.size());
+                List<Product> created = new ArrayList<>();
+                for (Product product : chunk) {
+                    Product target = existing.get(product.getId());
+                    if (target != null) {
+                        results.add(ProductUpdater.prepareUpdate(target, product));
+                    } else {
+                        created.add(product);
+                        results.add(product);
+                    }
+                }
+                rejectDeletedIds(created);
+                productRepository.persistAll(created);
+                productRepository.flushAndClear();
+                results.forEach(this::indexed);
+                created.forEach(product -> counted());
+                productMetrics.upserted(true, created.size());
+                productMetrics.upserted(false, results.size() - created.size());
+                return results;
+            }));
+        }
+        return upserted;
+    }
+
+    // Change price, updating the price row in place rather than replacing it
+    @Transactional
     public Optional<Product> patchPrice(UUID id, Price newPrice) {
-        return productRepository.findById(id)
-                .map(target -> productRepository.save(ProductUpdater.preparePatchPrice(target, newPrice)));
+        return found("patchPrice", productRepository.updatePrice(id, newPrice).map(this::invalidated));
     }
 
-    // Change name
+    // Change name with a single UPDATE, without loading the product first
+    @Transactional
     public Optional<Product> patchName(UUID id, Product productWithNewName) {
-        return productRepository.findById(id)
-                .map(target -> productRepository.save(ProductUpdater.preparePatchName(target, productWithNewName)));
+        return found("patchName", productRepository.updateName(id, productWithNewName.getName()).map(this::indexed));
     }
 
-    // Delete product
+    // Delete product, if present, in a single statement recording the deletion time
+    @Transactional
     public void deleteById(UUID id) {
-        productRepository.deleteById(id);
+        if (!productRepository.softDelete(id, Instant.now())) {
+            productMetrics.notFound("deleteById");
+            return;
+        }
+        productCache.invalidate(id);
+        catalogVersion.changed();
+        catalogCounter.decrement();
+        TransactionHooks.afterRollback(catalogCounter::increment);
+        TransactionHooks.afterCommit(() -> productNameIndex.remove(id));
+    }
+
+    // Split products into chunks of the configured size
+    private List<List<Product>> chunks(List<Product> products) {
+        int size = Math.max(1, batchChunkSize);
+        List<List<Product>> chunks = new ArrayList<>();
+        for (int from = 0; from < products.size(); from += size) {
+            chunks.add(products.subList(from, Math.min(from + size, products.size())));
+        }
+        return chunks;
+    }
+
+    // One transaction per merge, for the in-memory side effects to follow it. A version of 0
+    // tells a created product apart from an updated one.
+    private Optional<Product> merged(UUID id, Product product, boolean create, Long version) {
+        return transactionTemplate.execute(status -> {
+            Optional<Product> merged = productRepository.merge(id, product, create, version);
+            if (merged.isEmpty()) {
+                return merged;
+            }
+            boolean created = merged.get().getVersion() == 0;
+            if (created) {
+                counted();
+            }
+            productMetrics.upserted(created, 1);
+            return merged.map(this::indexed);
+        });
+    }
+
+    // Ids of deleted products can't be used again, as upsert() enforces in its statement
+    private void rejectDeletedIds(List<Product> created) {
+        if (created.isEmpty()) {
+            return;
+        }
+        List<UUID> deleted = productArchiveRepository.findDeletedAmong(created.stream().map(Product::getId).toList());
+        if (!deleted.isEmpty()) {
+            throw new DuplicateKeyException("Product Id " + deleted.get(0) + " belongs to a deleted product");
+        }
+    }
+
+    // Prefix matched as written by LIKE, as the name index matches it
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Count a created product
+    private void counted() {
+        catalogCounter.increment();
+        TransactionHooks.afterRollback(catalogCounter::decrement);
+    }
+
+    // Count a lookup by Id that found nothing
+    private Optional<Product> found(String operation, Optional<Product> product) {
+        if (product.isEmpty()) {
+            productMetrics.notFound(operation);
+        }
+        return product;
+    }
+
+    // Record the size of a search result
+    private <T extends Slice<Product>> T searched(T products) {
+        productMetrics.searched(products.getNumberOfElements());
+        return products;
+    }
+
+    // One extra row is fetched to tell whether there is a next page
+    private static Slice<Product> toSlice(List<Product> products, int size) {
+        boolean hasNext = products.size() > size;
+        return new SliceImpl<>(hasNext ? products.subList(0, size) : products, PageRequest.ofSize(size), hasNext);
+    }
+
+    // Mirror the saved name in the name index
+    private Product indexed(Product product) {
+        if (product != null) {
+            UUID id = product.getId();
+            String name = product.getName();
+            long version = product.getVersion();
+            TransactionHooks.afterCommit(() -> productNameIndex.put(id, name, version));
+        }
+        return invalidated(product);
+    }
+
+    // Drop the saved product from the cache and move the catalog version
+    private Product invalidated(Product product) {
+        if (product != null) {
+            productCache.invalidate(product.getId());
+            catalogVersion.changed();
+        }
+        return product;
     }
 }
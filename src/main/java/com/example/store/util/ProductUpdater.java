@@ -1,7 +1,6 @@
 package com.example.store.util;
 
 import com.example.store.model.Product;
-import com.example.store.model.Price;
 
 /**
  * Utillity class that is in support for product operations
@@ -13,14 +12,4 @@ public class ProductUpdater {
         target.setPrice(update.getPrice());
         return target;
     }
-
-    public static Product preparePatchPrice(Product target, Price newPrice) {
-        target.setPrice(newPrice);
-        return target;
-    }
-
-    public static Product preparePatchName(Product product, Product productWithNewName) {
-        product.setName(productWithNewName.getName());
-        return product;
-    }
 }
\ No newline at end of file
@@ -1,68 +1,34 @@
-insert into price(amount, currency, deleted) values(1.49, 'EUR', false);
-insert into price(amount, currency, deleted) values(2.49, 'EUR', false);
-insert into price(amount, currency, deleted) values(3.49, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('33b5785c-8d8a-4301-b5b3-b07b67347173', 'One', 1.49, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('a18920fb-56cd-41c5-8264-ed617c038524', 'Two', 2.49, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('410d3bbb-67f1-479c-81b0-a852e6579eb4', 'Three', 3.49, 'EUR', false);
 
-insert into product(id, name, price_id, deleted) values('33b5785c-8d8a-4301-b5b3-b07b67347173', 'One', 1, false);
-insert into product(id, name, price_id, deleted) values('a18920fb-56cd-41c5-8264-ed617c038524', 'Two', 2, false);
-insert into product(id, name, price_id, deleted) values('410d3bbb-67f1-479c-81b0-a852e6579eb4', 'Three', 3, false);
-
-insert into price(amount, currency, deleted) values(9.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('f1ca4d56-2c61-499d-bbf1-33e49d75038a', 'Essence Mascara Lash Princess', 4, false);
-insert into price(amount, currency, deleted) values(19.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('cf820e2f-460d-4819-8d8a-7c546593b954', 'Eyeshadow Palette with Mirror', 5, false);
-insert into price(amount, currency, deleted) values(14.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('2c5cebfc-b2a9-4220-8b51-32b095f5876f', 'Powder Canister', 6, false);
-insert into price(amount, currency, deleted) values(12.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('df31a010-304d-44d5-98d2-54de4f56f6f0', 'Red Lipstick', 7, false);
-insert into price(amount, currency, deleted) values(8.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('02ebaf19-d525-4f06-8c68-eac0c11cb376', 'Red Nail Polish', 8, false);
-insert into price(amount, currency, deleted) values(49.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('bb1f74cb-fea0-4526-abb6-4aea362bf4e6', 'Calvin Klein CK One', 9, false);
-insert into price(amount, currency, deleted) values(129.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('4a9bedc0-ef43-49d6-b9d0-e4fe229f0b26', 'Chanel Coco Noir Eau De', 10, false);
-insert into price(amount, currency, deleted) values(89.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('2f97eecf-add9-481c-bf86-cba69496f92e', 'Dior Jadore', 11, false);
-insert into price(amount, currency, deleted) values(69.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('c45c2979-a55d-4024-81b7-532a86e3fe67', 'Dolce Shine Eau de', 12, false);
-insert into price(amount, currency, deleted) values(79.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('89b95088-f5b0-422f-8575-896d9ed42322', 'Gucci Bloom Eau de', 13, false);
-insert into price(amount, currency, deleted) values(1899.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('50e9ea2d-1348-4cd7-b97e-5420aabb4ac9', 'Annibale Colombo Bed', 14, false);
-insert into price(amount, currency, deleted) values(2499.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('1054ca0a-b6b5-4061-bade-aeb0ca61990b', 'Annibale Colombo Sofa', 15, false);
-insert into price(amount, currency, deleted) values(299.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('8af5c9d0-8aad-4ccf-8e85-16b36d609768', 'Bedside Table African Cherry', 16, false);
-insert into price(amount, currency, deleted) values(499.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('c1ed7254-b208-4286-9b8b-4a5bbcddd509', 'Knoll Saarinen Executive Conference Chair', 17, false);
-insert into price(amount, currency, deleted) values(799.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('aea2b32c-1330-415c-ab3c-ce08b8b89e32', 'Wooden Bathroom Sink With Mirror', 18, false);
-insert into price(amount, currency, deleted) values(1.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('62b34c91-59bc-47b7-80e0-576859bccae2', 'Apple', 19, false);
-insert into price(amount, currency, deleted) values(12.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('3b8bfefd-2828-4f8e-9e89-8dad5ef147cd', 'Beef Steak', 20, false);
-insert into price(amount, currency, deleted) values(8.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('d0246c1d-d1a8-4801-980b-be3d1694de9b', 'Cat Food', 21, false);
-insert into price(amount, currency, deleted) values(9.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('1210b7ac-ce7a-4dde-9dc1-01ad760106f5', 'Chicken Meat', 22, false);
-insert into price(amount, currency, deleted) values(4.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('91d54628-72eb-460f-9c1d-fa509cf9a96e', 'Cooking Oil', 23, false);
-insert into price(amount, currency, deleted) values(1.49, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('d5e5c8fc-4cd2-41a9-976e-3fb1cb9ecd14', 'Engine Oil', 24, false);
-insert into price(amount, currency, deleted) values(10.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('1376d21d-25b0-4525-a4ce-b24129b7d39b', 'Dog Food', 25, false);
-insert into price(amount, currency, deleted) values(2.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('e18928c6-9fc4-4523-b79c-62f2a73a3cb0', 'Eggs', 26, false);
-insert into price(amount, currency, deleted) values(14.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('d3c55c57-fbc4-4de0-a21d-983205b90946', 'Fish Steak', 27, false);
-insert into price(amount, currency, deleted) values(1.29, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('3a91b0cb-bd06-4160-9207-05cac351d185', 'Green Bell Pepper', 28, false);
-insert into price(amount, currency, deleted) values(0.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('2775a2bb-aa0d-4a8f-90ec-2d124ca46e5b', 'Green Chili Pepper', 29, false);
-insert into price(amount, currency, deleted) values(6.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('2eb82a14-84ba-47bc-868e-b16b0ca9c73e', 'Honey Jar', 30, false);
-insert into price(amount, currency, deleted) values(5.49, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('dba2408a-218c-4dc3-abd7-159744ae23b0', 'Ice Cream', 31, false);
-insert into price(amount, currency, deleted) values(3.99, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('a39f7733-da66-413f-a1c3-63870cd466d7', 'Juice', 32, false);
-insert into price(amount, currency, deleted) values(2.49, 'EUR', false);
-insert into product(id, name, price_id, deleted) values('65f9ccf8-f588-4003-a2ba-b1e34dd1903c', 'Kiwi', 33, false);
\ No newline at end of file
+insert into product(id, name, amount, currency, deleted) values('f1ca4d56-2c61-499d-bbf1-33e49d75038a', 'Essence Mascara Lash Princess', 9.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('cf820e2f-460d-4819-8d8a-7c546593b954', 'Eyeshadow Palette with Mirror', 19.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('2c5cebfc-b2a9-4220-8b51-32b095f5876f', 'Powder Canister', 14.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('df31a010-304d-44d5-98d2-54de4f56f6f0', 'Red Lipstick', 12.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('02ebaf19-d525-4f06-8c68-eac0c11cb376', 'Red Nail Polish', 8.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('bb1f74cb-fea0-4526-abb6-4aea362bf4e6', 'Calvin Klein CK One', 49.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('4a9bedc0-ef43-49d6-b9d0-e4fe229f0b26', 'Chanel Coco Noir Eau De', 129.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('2f97eecf-add9-481c-bf86-cba69496f92e', 'Dior Jadore', 89.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('c45c2979-a55d-4024-81b7-532a86e3fe67', 'Dolce Shine Eau de', 69.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('89b95088-f5b0-422f-8575-896d9ed42322', 'Gucci Bloom Eau de', 79.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('50e9ea2d-1348-4cd7-b97e-5420aabb4ac9', 'Annibale Colombo Bed', 1899.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('1054ca0a-b6b5-4061-bade-aeb0ca61990b', 'Annibale Colombo Sofa', 2499.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('8af5c9d0-8aad-4ccf-8e85-16b36d609768', 'Bedside Table African Cherry', 299.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('c1ed7254-b208-4286-9b8b-4a5bbcddd509', 'Knoll Saarinen Executive Conference Chair', 499.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('aea2b32c-1330-415c-ab3c-ce08b8b89e32', 'Wooden Bathroom Sink With Mirror', 799.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('62b34c91-59bc-47b7-80e0-576859bccae2', 'Apple', 1.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('3b8bfefd-2828-4f8e-9e89-8dad5ef147cd', 'Beef Steak', 12.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('d0246c1d-d1a8-4801-980b-be3d1694de9b', 'Cat Food', 8.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('1210b7ac-ce7a-4dde-9dc1-01ad760106f5', 'Chicken Meat', 9.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('91d54628-72eb-460f-9c1d-fa509cf9a96e', 'Cooking Oil', 4.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('d5e5c8fc-4cd2-41a9-976e-3fb1cb9ecd14', 'Engine Oil', 1.49, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('1376d21d-25b0-4525-a4ce-b24129b7d39b', 'Dog Food', 10.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('e18928c6-9fc4-4523-b79c-62f2a73a3cb0', 'Eggs', 2.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('d3c55c57-fbc4-4de0-a21d-983205b90946', 'Fish Steak', 14.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('3a91b0cb-bd06-4160-9207-05cac351d185', 'Green Bell Pepper', 1.29, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('2775a2bb-aa0d-4a8f-90ec-2d124ca46e5b', 'Green Chili Pepper', 0.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('2eb82a14-84ba-47bc-868e-b16b0ca9c73e', 'Honey Jar', 6.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('dba2408a-218c-4dc3-abd7-159744ae23b0', 'Ice Cream', 5.49, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('a39f7733-da66-413f-a1c3-63870cd466d7', 'Juice', 3.99, 'EUR', false);
+insert into product(id, name, amount, currency, deleted) values('65f9ccf8-f588-4003-a2ba-b1e34dd1903c', 'Kiwi', 2.49, 'EUR', false);
@@ -0,0 +1,49 @@
+package com.example.store.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.store.security.config.TestSecurityConfig;
+
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@SpringBootTest
+@ActiveProfiles("IntegrationTest")
+@ContextConfiguration(classes = {TestSecurityConfig.class})
+class ActuatorTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void health() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("UP")));
+    }
+
+    @Test
+    void prometheusScrape() throws Exception {
+        mockMvc.perform(get("/products/33b5785c-8d8a-4301-b5b3-b07b67347173"));
+        mockMvc.perform(get("/products/830e2825-67c5-4bec-8bda-eb16b4c03c50"));
+        mockMvc.perform(get("/products/search?searchTerm=Bed"));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("store_products_operations_seconds_bucket{operation=\"findById\"")))
+                .andExpect(content().string(containsString("store_products_not_found_total{operation=\"findById\"} 1.0")))
+                .andExpect(content().string(containsString("store_products_search_results{quantile=\"0.99\"}")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds")));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.store.controller;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.store.log.AuditEvent;
+import com.example.store.log.AuditStore;
+import com.example.store.security.config.TestSecurityConfig;
+
+@AutoConfigureMockMvc
+@SpringBootTest
+@ActiveProfiles("IntegrationTest")
+@ContextConfiguration(classes = {TestSecurityConfig.class})
+class AuditControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuditStore auditStore;
+
+    @Test
+    void findByProduct() throws Exception {
+        UUID productId = UUID.randomUUID();
+        auditStore.append(List.of(new AuditEvent(Instant.parse("2025-01-01T10:00:00Z"), "deleteById", "admin",
+                new Object[] { productId })));
+
+        mockMvc.perform(get("/audit?productId=" + productId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].method").value("deleteById"))
+                .andExpect(jsonPath("$[0].username").value("admin"))
+                .andExpect(jsonPath("$[0].productIds[0]").value(productId.toString()));
+        mockMvc.perform(get("/audit?productId=" + productId + "&from=2025-01-01T11:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void failFindBadLimit() throws Exception {
+        mockMvc.perform(get("/audit?limit=0"))
+                .andExpect(status().isBadRequest());
+    }
+}
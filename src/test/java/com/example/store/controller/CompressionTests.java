@@ -0,0 +1,93 @@
+package com.example.store.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.example.store.security.config.TestSecurityConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+/**
+ * Gzip of responses by Tomcat, which MockMvc leaves out, over a port of its own against the
+ * start-up data set.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:compression")
+@ActiveProfiles("IntegrationTest")
+@ContextConfiguration(classes = { TestSecurityConfig.class })
+class CompressionTests {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void gzipLargeList() throws Exception {
+        HttpResponse<byte[]> response = get("/products?size=33", "application/json", "gzip");
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        JsonNode page = new ObjectMapper().readTree(gunzip(response.body()));
+        assertEquals(33, page.get("content").size());
+    }
+
+    @Test
+    void gzipLargeCborList() throws Exception {
+        HttpResponse<byte[]> response = get("/products?size=33", "application/cbor", "gzip");
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        JsonNode page = new CBORMapper().readTree(gunzip(response.body()));
+        assertEquals(33, page.get("content").size());
+    }
+
+    @Test
+    void gzipExport() throws Exception {
+        HttpResponse<byte[]> response = get("/products/export", "application/x-ndjson", "gzip");
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertEquals(33, new String(gunzip(response.body())).lines().count());
+    }
+
+    // Below the size threshold, or not asked for, responses go as they are
+    @Test
+    void noGzipSmallOrUnaccepted() throws Exception {
+        HttpResponse<byte[]> small = get("/products/a18920fb-56cd-41c5-8264-ed617c038524", "application/json", "gzip");
+        assertEquals(200, small.statusCode());
+        assertFalse(small.headers().firstValue("Content-Encoding").isPresent());
+
+        HttpResponse<byte[]> plain = get("/products?size=33", "application/json", "identity");
+        assertFalse(plain.headers().firstValue("Content-Encoding").isPresent());
+        assertTrue(new String(plain.body()).startsWith("{"));
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", accept)
+                .header("Accept-Encoding", acceptEncoding)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}
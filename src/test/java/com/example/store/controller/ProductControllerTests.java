@@ -1,9 +1,25 @@
 package com.example.store.controller;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -11,6 +27,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.example.store.security.config.TestSecurityConfig;
 
@@ -69,6 +86,84 @@ class ProductControllerTests {
                 .andExpect(status().isBadRequest());
     }
 
+    // Not transactional, for the version to be bumped by a committed change
+    @Test
+    void findByIdConditionally() throws Exception {
+        MvcResult created = mockMvc.perform(post("/products")
+                .header("Content-type", "application/json")
+                .content("{\"name\": \"Conditional\", \"price\": {\"amount\": 1.49, \"currency\": \"EUR\"} }"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String id = JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+        try {
+            String etag = mockMvc.perform(get("/products/" + id))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"0\""))
+                    .andExpect(jsonPath("$.version").doesNotExist())
+                    .andReturn().getResponse().getHeader("ETag");
+            mockMvc.perform(get("/products/" + id).header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+
+            mockMvc.perform(patch("/products/" + id + "/name")
+                    .header("Content-type", "application/json")
+                    .content("{\"name\": \"ConditionalChanged\"}"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/products/" + id).header("If-None-Match", etag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"1\""))
+                    .andExpect(jsonPath("$.name").value("ConditionalChanged"));
+        } finally {
+            mockMvc.perform(delete("/products/" + id));
+        }
+    }
+
+    @Test
+    @Transactional
+    void listConditionally() throws Exception {
+        MvcResult first = mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+        String lastModified = first.getResponse().getHeader("Last-Modified");
+
+        mockMvc.perform(get("/products").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/products?count=false").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/products?cursor=").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/products").header("If-Modified-Since", lastModified))
+                .andExpect(status().isNotModified());
+
+        // Any write moves the catalog version
+        mockMvc.perform(patch("/products/" + UUID_ONE + "/name")
+                .header("Content-type", "application/json")
+                .content("{\"name\": \"OneChanged\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/products").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(33));
+    }
+
+    @Test
+    void exportAllProducts() throws Exception {
+        MvcResult result = mockMvc.perform(get("/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(33, lines.length);
+        assertTrue(body.endsWith("\n"));
+        assertTrue(body.contains("{\"id\":\"" + UUID_TWO + "\",\"name\":\"Two\""));
+    }
+
     @Test
     @Transactional
     void searchWithResults() throws Exception {
@@ -81,6 +176,20 @@ class ProductControllerTests {
                 .andExpect(jsonPath("$.content[0].price.currency").value("EUR"));
     }
 
+    // LIKE wildcards keep matching as they did before the name index
+    @Test
+    @Transactional
+    void searchWithWildcards() throws Exception {
+        mockMvc.perform(get("/products/search").param("searchTerm", "engine_oil"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Engine Oil"));
+        mockMvc.perform(get("/products/search").param("searchTerm", "ing%oil"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Cooking Oil"));
+    }
+
     @Test
     @Transactional
     void searchWithoutResults() throws Exception {
@@ -89,6 +198,101 @@ class ProductControllerTests {
                 .andExpect(jsonPath("$.totalElements").value(0));
     }
 
+    @Test
+    @Transactional
+    void listProductsWithoutCount() throws Exception {
+        mockMvc.perform(get("/products?count=false&size=30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Annibale Colombo Bed"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        mockMvc.perform(get("/products?count=false&size=30&page=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    @Transactional
+    void searchWithoutCount() throws Exception {
+        mockMvc.perform(get("/products/search?searchTerm=oil&count=false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Cooking Oil"))
+                .andExpect(jsonPath("$.content[1].name").value("Engine Oil"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    @Transactional
+    void listProductsByCursor() throws Exception {
+        String body = mockMvc.perform(get("/products?cursor=&size=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pageSize").value(2))
+                .andExpect(jsonPath("$.content[0].name").value("Annibale Colombo Bed"))
+                .andExpect(jsonPath("$.content[1].name").value("Annibale Colombo Sofa"))
+                .andExpect(jsonPath("$.next").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String next = JsonPath.read(body, "$.next");
+        mockMvc.perform(get("/products?size=2&cursor=" + next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Apple"))
+                .andExpect(jsonPath("$.content[1].name").value("Bedside Table African Cherry"));
+    }
+
+    @Test
+    @Transactional
+    void searchByCursor() throws Exception {
+        String body = mockMvc.perform(get("/products/search?searchTerm=oil&cursor=&size=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Cooking Oil"))
+                .andReturn().getResponse().getContentAsString();
+        String next = JsonPath.read(body, "$.next");
+        mockMvc.perform(get("/products/search?searchTerm=oil&size=1&cursor=" + next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Engine Oil"))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void failListByCursorMalformed() throws Exception {
+        mockMvc.perform(get("/products?cursor=not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products?cursor=&size=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Parameters a cursor would ignore are refused instead
+    @Test
+    @Transactional
+    void failCursorWithSortOrPriceFilter() throws Exception {
+        mockMvc.perform(get("/products?cursor=&sort=price.amount"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products?cursor=&currency=EUR&minPrice=10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products?cursor=&maxPrice=10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/search?searchTerm=oil&cursor=&sort=name,desc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Cursor and count-free pages aren't projected, so fields along with them are refused
+    @Test
+    void failFieldsWithCursorOrWithoutCount() throws Exception {
+        mockMvc.perform(get("/products?fields=id,name&cursor="))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products?fields=id,name&count=false"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/search?searchTerm=oil&fields=name&cursor="))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/search?searchTerm=oil&fields=name&count=false"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products?fields=name&count=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").exists())
+                .andExpect(jsonPath("$.content[0].price").doesNotExist());
+    }
+
     @Test
     @Transactional
     void createProduct() throws Exception {
@@ -100,12 +304,29 @@ class ProductControllerTests {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").isNotEmpty())
                 .andExpect(jsonPath("$.name").value("Four"))
+                .andExpect(jsonPath("$.price.id").value(nullValue()))
                 .andExpect(jsonPath("$.price.amount").value(4.49))
                 .andExpect(jsonPath("$.price.currency").value("EUR"));
         mockMvc.perform(get("/products"))
                 .andExpect(jsonPath("$.totalElements").value(34));
     }
 
+    // An Id in the payload neither overwrites its product nor is taken for the new one
+    @Test
+    @Transactional
+    void createProductIgnoringId() throws Exception {
+        mockMvc.perform(post("/products")
+                .header("Content-type", "application/json")
+                .content("{\"name\": \"Four\", \"id\": \"" + UUID_ONE + "\", \"price\": {\"amount\": 4.49, \"currency\": \"EUR\"} }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(not(UUID_ONE)))
+                .andExpect(jsonPath("$.name").value("Four"));
+        mockMvc.perform(get("/products/" + UUID_ONE))
+                .andExpect(jsonPath("$.name").value("One"));
+        mockMvc.perform(get("/products"))
+                .andExpect(jsonPath("$.totalElements").value(34));
+    }
+
     @Test
     @Transactional
     void createProductWithRounding() throws Exception {
@@ -126,6 +347,10 @@ class ProductControllerTests {
                 .header("Content-type", "application/json")
                 .content("{\"name\": \"One\", \"price\": {\"amount\": 4.49} }"))
                 .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/products")
+                .header("Content-type", "application/json")
+                .content("{\"name\": \"One\", \"price\": {\"currency\": \"EUR\"} }"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -151,6 +376,124 @@ class ProductControllerTests {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @Transactional
+    void createProductsInBatch() throws Exception {
+        mockMvc.perform(post("/products/batch")
+                .header("Content-type", "application/json")
+                .content("[{\"name\": \"Four\", \"price\": {\"amount\": 4.49, \"currency\": \"EUR\"} },"
+                        + " {\"name\": \"Five\", \"id\": \"" + UUID_ONE + "\", \"price\": {\"amount\": 5.495, \"currency\": \"EUR\"} }]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Four"))
+                .andExpect(jsonPath("$[0].price.amount").value(4.49))
+                .andExpect(jsonPath("$[1].name").value("Five"))
+                .andExpect(jsonPath("$[1].price.amount").value(5.5));
+        mockMvc.perform(get("/products"))
+                .andExpect(jsonPath("$.totalElements").value(35));
+        mockMvc.perform(get("/products/" + UUID_ONE))
+                .andExpect(jsonPath("$.name").value("One"));
+    }
+
+    @Test
+    @Transactional
+    void upsertProductsInBatch() throws Exception {
+        mockMvc.perform(put("/products/batch")
+                .header("Content-type", "application/json")
+                .content("[{\"name\": \"OneChanged\", \"id\": \"" + UUID_ONE + "\", \"price\": {\"amount\": 1.39, \"currency\": \"RON\"} },"
+                        + " {\"name\": \"Four\", \"id\": \"" + UUID_FOUR + "\", \"price\": {\"amount\": 4.49, \"currency\": \"EUR\"} }]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(UUID_ONE))
+                .andExpect(jsonPath("$[1].id").value(UUID_FOUR));
+        mockMvc.perform(get("/products/" + UUID_ONE))
+                .andExpect(jsonPath("$.name").value("OneChanged"))
+                .andExpect(jsonPath("$.price.currency").value("RON"));
+        mockMvc.perform(get("/products/" + UUID_FOUR))
+                .andExpect(jsonPath("$.name").value("Four"));
+        mockMvc.perform(get("/products"))
+                .andExpect(jsonPath("$.totalElements").value(34));
+    }
+
+    @Test
+    @Transactional
+    void failBatchInvalid() throws Exception {
+        mockMvc.perform(post("/products/batch")
+                .header("Content-type", "application/json")
+                .content("[{\"name\": \"Four\", \"price\": {\"amount\": 4.49, \"currency\": \"EUR\"} },"
+                        + " {\"name\": \" \", \"price\": {\"amount\": 5.49, \"currency\": \"EUR\"} }]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/products/batch")
+                .header("Content-type", "application/json")
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products"))
+                .andExpect(jsonPath("$.totalElements").value(33));
+    }
+
+    @Test
+    @Transactional
+    void importProductsFromNdjson() throws Exception {
+        mockMvc.perform(post("/products/import")
+                .header("Content-type", "application/x-ndjson")
+                .content("{\"name\": \"OneChanged\", \"id\": \"" + UUID_ONE + "\", \"price\": {\"amount\": 1.39, \"currency\": \"RON\"} }\n"
+                        + "{\"name\": \"Four\", \"price\": {\"amount\": 4.49, \"currency\": \"EUR\"} }\n"
+                        + "\n"
+                        + "{\"name\": \" \", \"price\": {\"amount\": 5.49, \"currency\": \"EUR\"} }\n"
+                        + "{\"name\": \"Six\", \"price\": {\"amount\": 6.49, \"currency\": \"XXXX\"} }\n"
+                        + "{\"name\": \"Seven\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(5))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.errors[0].row").value(4))
+                .andExpect(jsonPath("$.errors[0].message").value("name: must not be blank"))
+                .andExpect(jsonPath("$.errors[1].row").value(5))
+                .andExpect(jsonPath("$.errors[2].row").value(6));
+        mockMvc.perform(get("/products/" + UUID_ONE))
+                .andExpect(jsonPath("$.name").value("OneChanged"))
+                .andExpect(jsonPath("$.price.currency").value("RON"));
+        mockMvc.perform(get("/products"))
+                .andExpect(jsonPath("$.totalElements").value(34));
+    }
+
+    @Test
+    @Transactional
+    void importProductsFromCsv() throws Exception {
+        mockMvc.perform(post("/products/import")
+                .header("Content-type", "text/csv")
+                .content("Id,Name,Amount,Currency\n"
+                        + UUID_FOUR + ",\"Four, quoted\",4.49,EUR\n"
+                        + ",Five,5.495,EUR\n"
+                        + ",Six,six,EUR\n"
+                        + "not-uuid,Seven,7.49,EUR\n"
+                        + ",,8.49,EUR\n"
+                        + ",Nine,9.49\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(6))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(4))
+                .andExpect(jsonPath("$.errors[0].row").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("Invalid amount: six"))
+                .andExpect(jsonPath("$.errors[3].row").value(6));
+        mockMvc.perform(get("/products/" + UUID_FOUR))
+                .andExpect(jsonPath("$.name").value("Four, quoted"))
+                .andExpect(jsonPath("$.price.amount").value(4.49));
+        mockMvc.perform(get("/products"))
+                .andExpect(jsonPath("$.totalElements").value(35));
+    }
+
+    @Test
+    @Transactional
+    void failImportCsvMissingColumn() throws Exception {
+        mockMvc.perform(post("/products/import")
+                .header("Content-type", "text/csv")
+                .content("name,amount\nFour,4.49\n"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products"))
+                .andExpect(jsonPath("$.totalElements").value(33));
+    }
+
     @Test
     @Transactional
     void upsertExistingProductButNotChangingId() throws Exception {
@@ -188,6 +531,67 @@ class ProductControllerTests {
                 .andExpect(jsonPath("$.price.currency").value("EUR"));
     }   
 
+    @Test
+    @Transactional
+    void upsertIfMatch() throws Exception {
+        String update = "{\"name\": \"ThreeChanged\", \"price\": {\"amount\": 3.39, \"currency\": \"RON\"} }";
+        mockMvc.perform(put("/products/" + UUID_THREE)
+                .header("Content-type", "application/json")
+                .header("If-Match", "\"0\"")
+                .content(update))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.name").value("ThreeChanged"));
+        // The product changed since version 0
+        mockMvc.perform(put("/products/" + UUID_THREE)
+                .header("Content-type", "application/json")
+                .header("If-Match", "\"0\"")
+                .content(update))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/products/" + UUID_THREE)
+                .header("Content-type", "application/json")
+                .header("If-Match", "W/\"1\"")
+                .content(update))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/products/" + UUID_THREE)
+                .header("Content-type", "application/json")
+                .header("If-Match", "*")
+                .content(update))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""));
+        // The ETag of another format names the same version
+        mockMvc.perform(put("/products/" + UUID_THREE)
+                .header("Content-type", "application/json")
+                .header("Accept", "application/cbor")
+                .header("If-Match", "\"2-smile\"")
+                .content(update))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3-cbor\""));
+        // If-Match never creates
+        mockMvc.perform(put("/products/" + UUID_FOUR)
+                .header("Content-type", "application/json")
+                .header("If-Match", "*")
+                .content(update))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(get("/products/" + UUID_FOUR))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/products/" + UUID_THREE))
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.price.amount").value(3.39))
+                .andExpect(jsonPath("$.price.currency").value("RON"));
+    }
+
+    @Test
+    @Transactional
+    void failUpsertDeletedProduct() throws Exception {
+        mockMvc.perform(delete("/products/" + UUID_TWO))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/products/" + UUID_TWO)
+                .header("Content-type", "application/json")
+                .content("{\"name\": \"TwoAgain\", \"price\": {\"amount\": 2.49, \"currency\": \"EUR\"} }"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @Transactional
     void updateProductPriceWithRounding() throws Exception {
@@ -225,6 +629,9 @@ class ProductControllerTests {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name").value("One"))
                 .andExpect(jsonPath("$.price.amount").value(1.99));
+        mockMvc.perform(get("/products/" + UUID_ONE))
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.price.amount").value(1.99));
         mockMvc.perform(patch("/products/" + UUID_TWO + "/price")
                 .header("Content-type", "application/json")
                 .content("{\"amount\": 2, \"currency\": \"RON\"}"))
@@ -233,6 +640,25 @@ class ProductControllerTests {
                 .andExpect(jsonPath("$.price.currency").value("RON"));
     }
 
+    @Test
+    @Transactional
+    void patchPriceOfProductWithoutPrice() throws Exception {
+        mockMvc.perform(put("/products/" + UUID_FOUR)
+                .header("Content-type", "application/json")
+                .content("{\"name\": \"Four\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").isEmpty());
+        mockMvc.perform(patch("/products/" + UUID_FOUR + "/price")
+                .header("Content-type", "application/json")
+                .content("{\"amount\": 4.99, \"currency\": \"EUR\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Four"))
+                .andExpect(jsonPath("$.price.amount").value(4.99));
+        mockMvc.perform(get("/products/" + UUID_FOUR))
+                .andExpect(jsonPath("$.price.amount").value(4.99))
+                .andExpect(jsonPath("$.price.currency").value("EUR"));
+    }
+
     @Test
     @Transactional
     void failPatchPrice() throws Exception {
@@ -316,4 +742,220 @@ class ProductControllerTests {
         mockMvc.perform(delete("/products/abcd"))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    @Transactional
+    void listByPriceRange() throws Exception {
+        mockMvc.perform(get("/products?currency=EUR&minPrice=10&maxPrice=50&sort=price.amount"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(7))
+                .andExpect(jsonPath("$.content[0].name").value("Dog Food"))
+                .andExpect(jsonPath("$.content[0].price.amount").value(10.99))
+                .andExpect(jsonPath("$.content[6].name").value("Calvin Klein CK One"));
+        mockMvc.perform(get("/products?currency=EUR&maxPrice=1.29&count=false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].name").value("Green Bell Pepper"));
+        mockMvc.perform(get("/products?currency=USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    @Transactional
+    void failListByPriceRange() throws Exception {
+        mockMvc.perform(get("/products?minPrice=10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products?currency=EUR&minPrice=-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products?currency=EUR&maxPrice=1.999"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products?currency=XYZ"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void cheapest() throws Exception {
+        mockMvc.perform(get("/products/cheapest?currency=EUR&n=4"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].name").value("Green Chili Pepper"))
+                .andExpect(jsonPath("$[1].name").value("Green Bell Pepper"))
+                .andExpect(jsonPath("$[2].price.amount").value(1.49))
+                .andExpect(jsonPath("$[3].price.amount").value(1.49));
+        mockMvc.perform(get("/products/cheapest?currency=EUR"))
+                .andExpect(jsonPath("$.length()").value(10));
+    }
+
+    @Test
+    @Transactional
+    void failCheapest() throws Exception {
+        mockMvc.perform(get("/products/cheapest"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/cheapest?currency=EUR&n=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Products deleted by the tests are within the retention window, so nothing is due
+    @Test
+    void archiveDeleted() throws Exception {
+        mockMvc.perform(post("/products/archive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.archived").value(0))
+                .andExpect(jsonPath("$.batches").value(0))
+                .andExpect(jsonPath("$.cutoff").exists());
+    }
+
+    @Test
+    @Transactional
+    void listFields() throws Exception {
+        mockMvc.perform(get("/products?fields=name,id"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.totalElements").value(33))
+                .andExpect(jsonPath("$.pageSize").value(10))
+                .andExpect(jsonPath("$.content.length()").value(10))
+                .andExpect(jsonPath("$.content[0].name").value("Annibale Colombo Bed"))
+                .andExpect(jsonPath("$.content[0].id").exists())
+                .andExpect(jsonPath("$.content[0].price").doesNotExist());
+        mockMvc.perform(get("/products?fields=price&currency=EUR&minPrice=10&maxPrice=50&sort=price.amount"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(7))
+                .andExpect(jsonPath("$.content[0].price.amount").value(10.99))
+                .andExpect(jsonPath("$.content[0].price.currency").value("EUR"))
+                .andExpect(jsonPath("$.content[0].name").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void searchFields() throws Exception {
+        mockMvc.perform(get("/products/search?searchTerm=oil&fields=name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[0].name").value("Cooking Oil"))
+                .andExpect(jsonPath("$.content[1].name").value("Engine Oil"))
+                .andExpect(jsonPath("$.content[0].id").doesNotExist());
+        mockMvc.perform(get("/products/search?fields=name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    @Transactional
+    void findFieldsById() throws Exception {
+        mockMvc.perform(get("/products/" + UUID_TWO + "?fields=price"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(jsonPath("$.price.amount").value(2.49))
+                .andExpect(jsonPath("$.name").doesNotExist())
+                .andExpect(jsonPath("$.id").doesNotExist());
+        mockMvc.perform(get("/products/" + UUID_MISS + "?fields=price"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void failFields() throws Exception {
+        mockMvc.perform(get("/products?fields=id,version"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products?fields="))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/" + UUID_TWO + "?fields=password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void suggest() throws Exception {
+        mockMvc.perform(get("/products/suggest?prefix=oil"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Cooking Oil"))
+                .andExpect(jsonPath("$[0].id").exists())
+                .andExpect(jsonPath("$[0].price").doesNotExist())
+                .andExpect(jsonPath("$[1].name").value("Engine Oil"));
+        mockMvc.perform(get("/products/suggest?prefix=ANNIBALE&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Annibale Colombo Bed"));
+    }
+
+    @Test
+    @Transactional
+    void failSuggest() throws Exception {
+        mockMvc.perform(get("/products/suggest").param("prefix", " "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/suggest"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/suggest?prefix=oil&limit=0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/suggest?prefix=oil&limit=101"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void listAsCbor() throws Exception {
+        byte[] body = mockMvc.perform(get("/products").header("Accept", "application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode page = new CBORMapper().readTree(body);
+        assertEquals(33, page.get("totalElements").asInt());
+        assertEquals("Annibale Colombo Bed", page.at("/content/0/name").asText());
+        assertEquals(new BigDecimal("1899.99"), page.at("/content/0/price/amount").decimalValue());
+        assertEquals("EUR", page.at("/content/0/price/currency").asText());
+    }
+
+    @Test
+    @Transactional
+    void findByIdAsSmile() throws Exception {
+        byte[] body = mockMvc.perform(get("/products/" + UUID_TWO).header("Accept", "application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andExpect(header().string("ETag", "\"0-smile\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        // Each format validates against its own ETag
+        mockMvc.perform(get("/products/" + UUID_TWO).header("Accept", "application/x-jackson-smile")
+                .header("If-None-Match", "\"0-smile\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/products/" + UUID_TWO).header("If-None-Match", "\"0-smile\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""));
+        SmileMapper mapper = new SmileMapper();
+        JsonNode product = mapper.readTree(body);
+        // Ids go as 16 bytes rather than 36 characters
+        assertEquals(16, product.get("id").binaryValue().length);
+        assertEquals(UUID.fromString(UUID_TWO), mapper.treeToValue(product.get("id"), UUID.class));
+        assertEquals("Two", product.get("name").asText());
+        assertEquals(new BigDecimal("2.49"), product.at("/price/amount").decimalValue());
+    }
+
+    @Test
+    @Transactional
+    void createFromCbor() throws Exception {
+        byte[] body = new CBORMapper().writeValueAsBytes(Map.of(
+                "name", "Binary", "price", Map.of("amount", new BigDecimal("3.50"), "currency", "EUR")));
+        mockMvc.perform(post("/products")
+                .header("Content-type", "application/cbor")
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Binary"))
+                .andExpect(jsonPath("$.price.amount").value(3.5));
+    }
+
+    // JSON remains the default, for clients not naming a format
+    @Test
+    @Transactional
+    void listAsJsonByDefault() throws Exception {
+        mockMvc.perform(get("/products").header("Accept", "*/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json"));
+        mockMvc.perform(get("/products").header("Accept", "application/xml"))
+                .andExpect(status().isNotAcceptable());
+    }
 }
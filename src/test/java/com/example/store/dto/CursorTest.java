@@ -0,0 +1,31 @@
+package com.example.store.dto;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CursorTest {
+
+    private static final UUID UUID_ONE = UUID.fromString("33b5785c-8d8a-4301-b5b3-b07b67347173");
+
+    @Test
+    void encodesAndDecodes() {
+        Cursor cursor = Cursor.decode(new Cursor("Multi\nline, ünicode", UUID_ONE).encode());
+
+        assertEquals("Multi\nline, ünicode", cursor.getName());
+        assertEquals(UUID_ONE, cursor.getId());
+    }
+
+    @Test
+    void emptyTokenStartsFromTheFirstPage() {
+        assertSame(Cursor.START, Cursor.decode(""));
+        assertSame(Cursor.START, Cursor.decode(null));
+    }
+
+    @Test
+    void failDecodeMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode("YWJj"));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.store.dto;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.store.model.Product;
+import com.example.store.model.Price;
+
+public class SliceResponseTest {
+
+    private static Product createTestProduct() {
+        Price price = new Price();
+        price.setAmount(BigDecimal.valueOf(1.49));
+        price.setCurrency(Currency.getInstance("EUR"));
+        Product product = new Product();
+        product.setName("One");
+        product.setPrice(price);
+
+        return product;
+    }
+
+    @Test
+    void mapsSliceToSliceResponse() throws Exception {
+        Slice<Product> products = new SliceImpl<Product>(List.of(
+                createTestProduct(),
+                createTestProduct()), PageRequest.of(1, 2), true);
+        SliceResponse<Product> response = SliceResponse.of(products);
+        assertEquals(1, response.getPageNumber());
+        assertEquals(2, response.getPageSize());
+        assertTrue(response.isHasNext());
+        assertEquals(2, response.getContent().size());
+    }
+
+}
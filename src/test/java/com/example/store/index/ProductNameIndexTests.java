@@ -0,0 +1,168 @@
+package com.example.store.index;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.store.dto.ProductSuggestion;
+import com.example.store.repository.ProductNameView;
+
+class ProductNameIndexTests {
+
+    private static final UUID UUID_COOKING = UUID.fromString("91d54628-72eb-460f-9c1d-fa509cf9a96e");
+    private static final UUID UUID_ENGINE = UUID.fromString("d5e5c8fc-4cd2-41a9-976e-3fb1cb9ecd14");
+    private static final UUID UUID_HONEY = UUID.fromString("2eb82a14-84ba-47bc-868e-b16b0ca9c73e");
+
+    private ProductNameIndex index;
+
+    private static ProductNameView view(UUID id, String name) {
+        return new ProductNameView() {
+            public UUID getId() {
+                return id;
+            }
+
+            public String getName() {
+                return name;
+            }
+
+            public long getVersion() {
+                return 0;
+            }
+        };
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductNameIndex(ProductNameIndex.DEFAULT_MAX_CANDIDATES);
+        index.rebuild(() -> List.of(
+                view(UUID_COOKING, "Cooking Oil"),
+                view(UUID_ENGINE, "Engine Oil"),
+                view(UUID_HONEY, "Honey Jar")));
+    }
+
+    @Test
+    void findsCandidatesIgnoringCase() {
+        assertTrue(index.isReady());
+        assertEquals(3, index.size());
+        assertEquals(Optional.of(Set.of(UUID_COOKING, UUID_ENGINE)), index.candidates("OIL"));
+        assertEquals(Optional.of(Set.of(UUID_HONEY)), index.candidates("ney j"));
+        assertEquals(Optional.of(Set.of()), index.candidates("xyz"));
+    }
+
+    @Test
+    void fallsBackWhenIndexCantHelp() {
+        assertTrue(index.candidates("oi").isEmpty());
+        assertTrue(index.candidates(null).isEmpty());
+        assertTrue(new ProductNameIndex(ProductNameIndex.DEFAULT_MAX_CANDIDATES).candidates("oil").isEmpty());
+
+        // LIKE wildcards, which the trigrams would take literally
+        assertTrue(index.candidates("en_ine").isEmpty());
+        assertTrue(index.candidates("oil%").isEmpty());
+        assertTrue(index.candidates("oil\\").isEmpty());
+
+        ProductNameIndex unselective = new ProductNameIndex(1);
+        unselective.rebuild(() -> List.of(view(UUID_COOKING, "Cooking Oil"), view(UUID_ENGINE, "Engine Oil")));
+        assertTrue(unselective.candidates("oil").isEmpty());
+    }
+
+    @Test
+    void putReplacesPreviousName() {
+        index.put(UUID_ENGINE, "Engine Grease", 1);
+
+        assertEquals(Optional.of(Set.of(UUID_COOKING)), index.candidates("oil"));
+        assertEquals(Optional.of(Set.of(UUID_ENGINE)), index.candidates("grease"));
+    }
+
+    // After-commit hooks of concurrent writes may run in any order
+    @Test
+    void ignoresOutdatedWrites() {
+        index.put(UUID_ENGINE, "Engine Grease", 2);
+        index.put(UUID_ENGINE, "Engine Wax", 1);
+
+        assertEquals(Optional.of(Set.of(UUID_ENGINE)), index.candidates("grease"));
+        assertEquals(Optional.of(Set.of()), index.candidates("wax"));
+
+        index.remove(UUID_COOKING);
+        index.put(UUID_COOKING, "Cooking Oil", 3);
+        assertEquals(Optional.of(Set.of()), index.candidates("oil"));
+        assertEquals(List.of(), index.suggest("cooking", 10).orElseThrow());
+    }
+
+    @Test
+    void remove() {
+        index.remove(UUID_COOKING);
+
+        assertEquals(Optional.of(Set.of(UUID_ENGINE)), index.candidates("oil"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void rebuildKeepsWritesMadeWhileLoading() {
+        index.rebuild(() -> {
+            index.put(UUID_HONEY, "Honey Oil", 1);
+            index.remove(UUID_ENGINE);
+            return List.of(view(UUID_COOKING, "Cooking Oil"), view(UUID_ENGINE, "Engine Oil"));
+        });
+
+        assertEquals(Optional.of(Set.of(UUID_COOKING, UUID_HONEY)), index.candidates("oil"));
+    }
+
+    @Test
+    void suggestsByNameOrWordPrefix() {
+        assertEquals(List.of(UUID_COOKING), ids(index.suggest("co", 10)));
+        assertEquals(List.of(UUID_COOKING, UUID_ENGINE), ids(index.suggest("OIL", 10)));
+        assertEquals(List.of(UUID_COOKING), ids(index.suggest("cooking o", 10)));
+        assertEquals(List.of(UUID_COOKING), ids(index.suggest("oil", 1)));
+        assertEquals(List.of(), ids(index.suggest("il", 10)));
+        assertEquals("Honey Jar", index.suggest(" hon", 10).get().get(0).getName());
+        assertTrue(new ProductNameIndex(ProductNameIndex.DEFAULT_MAX_CANDIDATES).suggest("oil", 10).isEmpty());
+    }
+
+    @Test
+    void suggestsEachProductOnce() {
+        index.put(UUID_HONEY, "Oil Oil", 1);
+
+        assertEquals(List.of(UUID_COOKING, UUID_ENGINE, UUID_HONEY), ids(index.suggest("oil", 10)));
+    }
+
+    // A tail that another one starts with sorts first, whatever the Ids
+    @Test
+    void suggestsShorterTailFirst() {
+        index.put(UUID_COOKING, "Oil Can", 1);
+
+        assertEquals(List.of(UUID_ENGINE, UUID_COOKING), ids(index.suggest("oil", 10)));
+        assertEquals(List.of(UUID_COOKING), ids(index.suggest("oil c", 10)));
+        assertEquals(List.of(UUID_COOKING), ids(index.suggest("can", 10)));
+        assertEquals(List.of(), ids(index.suggest("cooking", 10)));
+    }
+
+    @Test
+    void suggestionsFollowWrites() {
+        index.put(UUID_ENGINE, "Engine Grease", 1);
+        index.remove(UUID_COOKING);
+
+        assertEquals(List.of(), ids(index.suggest("oil", 10)));
+        assertEquals(List.of(UUID_ENGINE), ids(index.suggest("gr", 10)));
+        assertEquals("Engine Grease", index.suggest("en", 10).get().get(0).getName());
+    }
+
+    @Test
+    void rebuildKeepsSuggestionsWrittenWhileLoading() {
+        index.rebuild(() -> {
+            index.put(UUID_HONEY, "Honey Oil", 1);
+            index.remove(UUID_ENGINE);
+            return List.of(view(UUID_COOKING, "Cooking Oil"), view(UUID_ENGINE, "Engine Oil"));
+        });
+
+        assertEquals(List.of(UUID_COOKING, UUID_HONEY), ids(index.suggest("oil", 10)));
+    }
+
+    private static List<UUID> ids(Optional<List<ProductSuggestion>> suggestions) {
+        return suggestions.orElseThrow().stream().map(ProductSuggestion::getId).toList();
+    }
+}
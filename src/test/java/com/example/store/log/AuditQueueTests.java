@@ -0,0 +1,135 @@
+package com.example.store.log;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.time.Duration;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import com.example.store.log.AuditQueue.OverflowPolicy;
+import com.example.store.model.Product;
+
+class AuditQueueTests {
+
+    @TempDir
+    private Path dir;
+
+    private static AuditEvent event(String method, Object... args) {
+        return new AuditEvent(Instant.now(), method, "admin", args);
+    }
+
+    @Test
+    void writesEventsInOrder() throws Exception {
+        Path file = dir.resolve("audit.log");
+        AuditQueue queue = new AuditQueue(file.toString(), 16, 1000, 4, OverflowPolicy.BLOCK);
+        queue.start();
+        for (int i = 0; i < 100; i++) {
+            queue.publish(event("call" + i, i));
+        }
+        queue.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(100, lines.size());
+        assertTrue(lines.get(0).endsWith("INFO  AUDIT - [call0][admin]: [[0]]"));
+        assertTrue(lines.get(99).endsWith("[call99][admin]: [[99]]"));
+        assertEquals(0, queue.pending());
+    }
+
+    @Test
+    void formatsCollectionsOfEntitiesByIds() throws Exception {
+        Path file = dir.resolve("audit.log");
+        AuditQueue queue = new AuditQueue(file.toString(), 16, 1000, 4, OverflowPolicy.BLOCK);
+        Product product = new Product();
+        product.setId(UUID.fromString("33b5785c-8d8a-4301-b5b3-b07b67347173"));
+        queue.publish(event("upsertAll", List.of(product)));
+        queue.close();
+
+        assertTrue(Files.readString(file).contains("[upsertAll][admin]: [[1 items: [33b5785c-8d8a-4301-b5b3-b07b67347173]]]"));
+    }
+
+    // A failing store costs its batches, not the writer thread, so blocked producers go on
+    @Test
+    void keepsDrainingAfterStoreFailure() throws Exception {
+        Path file = dir.resolve("audit.log");
+        AuditQueue queue = new AuditQueue(file.toString(), 2, 1000, 1, OverflowPolicy.BLOCK);
+        AuditStore store = mock(AuditStore.class);
+        doThrow(new IllegalStateException("Corrupt index")).when(store).append(any());
+        ReflectionTestUtils.setField(queue, "auditStore", store);
+        queue.start();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 20; i++) {
+                queue.publish(event("call" + i));
+            }
+        });
+        queue.close();
+
+        assertEquals(20, queue.droppedEvents());
+        assertEquals(20, Files.readAllLines(file).size());
+    }
+
+    // Queued, a batch holds on to the Ids of its products only, and counts them against the
+    // item capacity
+    @Test
+    void boundsHeldItems() throws Exception {
+        Path file = dir.resolve("audit.log");
+        AuditQueue queue = new AuditQueue(file.toString(), 16, 3, 4, OverflowPolicy.DROP);
+        Product product = new Product();
+        product.setName("Batched");
+        AuditEvent batch = AuditEvent.capture(Instant.now(), "upsertAll", "admin",
+                new Object[] { List.of(product, new Product()) });
+        assertEquals(2, batch.heldItems());
+        assertFalse(batch.params().contains("Batched"));
+        assertEquals(product.getId(), batch.productIds().get(0));
+
+        queue.publish(batch);
+        queue.publish(event("one", UUID.randomUUID()));
+        queue.publish(AuditEvent.capture(Instant.now(), "createAll", "admin", new Object[] { List.of(product, product) }));
+        assertEquals(2, queue.pending());
+        assertEquals(1, queue.droppedEvents());
+        queue.close();
+
+        assertTrue(Files.readString(file).contains("[upsertAll][admin]: [[2 items: [" + product.getId() + ", "));
+    }
+
+    @Test
+    void dropsOnOverflow() throws Exception {
+        Path file = dir.resolve("audit.log");
+        // Not started, so nothing drains the queue until close()
+        AuditQueue queue = new AuditQueue(file.toString(), 2, 1000, 4, OverflowPolicy.DROP);
+        queue.publish(event("one"));
+        queue.publish(event("two"));
+        queue.publish(event("three"));
+        assertEquals(2, queue.pending());
+        assertEquals(1, queue.droppedEvents());
+        queue.close();
+
+        assertEquals(2, Files.readAllLines(file).size());
+    }
+
+    @Test
+    void spillsOnOverflow() throws Exception {
+        Path file = dir.resolve("audit.log");
+        AuditQueue queue = new AuditQueue(file.toString(), 1, 1000, 4, OverflowPolicy.SPILL);
+        queue.publish(event("one"));
+        queue.publish(event("two"));
+        assertEquals(1, queue.spilledEvents());
+        // The spilled event is written right away, ahead of the queued one
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("[two]"));
+        queue.close();
+
+        assertEquals(2, Files.readAllLines(file).size());
+        assertEquals(0, queue.droppedEvents());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.store.log;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditStoreTests {
+
+    private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+    private static final UUID PRODUCT_ONE = UUID.fromString("33b5785c-8d8a-4301-b5b3-b07b67347173");
+    private static final UUID PRODUCT_TWO = UUID.fromString("a18920fb-56cd-41c5-8264-ed617c038524");
+
+    @TempDir
+    private Path dir;
+
+    // Event i happens i minutes after START, by admin on even i, by user on odd i
+    private static List<AuditEvent> events(int count) {
+        List<AuditEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID product = i % 3 == 0 ? PRODUCT_ONE : PRODUCT_TWO;
+            events.add(new AuditEvent(START.plusSeconds(60L * i), "call" + i, i % 2 == 0 ? "admin" : "user",
+                    new Object[] { product, "x".repeat(20) }));
+        }
+        return events;
+    }
+
+    private long count(String suffix) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(suffix)).count();
+        }
+    }
+
+    @Test
+    void findsByFilters() throws Exception {
+        AuditStore store = new AuditStore(dir.toString(), DataSize.ofMegabytes(1));
+        store.append(events(10));
+
+        List<AuditRecord> byProduct = store.find(PRODUCT_ONE, null, null, null, 100);
+        assertEquals(List.of("call9", "call6", "call3", "call0"), byProduct.stream().map(AuditRecord::method).toList());
+        assertEquals(List.of(PRODUCT_ONE), byProduct.get(0).productIds());
+        assertTrue(byProduct.get(0).params().startsWith("[" + PRODUCT_ONE));
+
+        assertEquals(5, store.find(null, "user", null, null, 100).size());
+        assertEquals(List.of("call6", "call0"),
+                store.find(PRODUCT_ONE, "admin", null, null, 100).stream().map(AuditRecord::method).toList());
+        assertEquals(List.of("call4", "call3", "call2"), store.find(null, null, START.plusSeconds(120),
+                START.plusSeconds(240), 100).stream().map(AuditRecord::method).toList());
+        assertEquals(List.of("call9", "call8"),
+                store.find(null, null, null, null, 2).stream().map(AuditRecord::method).toList());
+        assertTrue(store.find(UUID.randomUUID(), null, null, null, 100).isEmpty());
+        store.close();
+    }
+
+    @Test
+    void rollsSegmentsAndReopens() throws Exception {
+        AuditStore store = new AuditStore(dir.toString(), DataSize.ofBytes(500));
+        store.append(events(20));
+        store.close();
+
+        assertTrue(count(".seg") > 2);
+        // Every segment but the active one has a sidecar index
+        assertEquals(count(".seg") - 1, count(".idx"));
+
+        AuditStore reopened = new AuditStore(dir.toString(), DataSize.ofBytes(500));
+        assertEquals(10, reopened.find(null, "admin", null, null, 100).size());
+        assertEquals(7, reopened.find(PRODUCT_ONE, null, null, null, 100).size());
+        assertEquals(List.of("call19", "call18", "call17"),
+                reopened.find(null, null, null, null, 3).stream().map(AuditRecord::method).toList());
+        reopened.close();
+    }
+
+    @Test
+    void recoversFromDamagedFiles() throws Exception {
+        AuditStore store = new AuditStore(dir.toString(), DataSize.ofBytes(500));
+        store.append(events(20));
+        store.close();
+
+        // A record cut short in the active segment, and a lost sidecar
+        Path active;
+        try (Stream<Path> files = Files.list(dir)) {
+            active = files.filter(file -> file.toString().endsWith(".seg")).sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        Files.write(active, new byte[] { 0, 0, 1, 0, 42 }, StandardOpenOption.APPEND);
+        Files.delete(dir.resolve("audit-000001.idx"));
+
+        AuditStore reopened = new AuditStore(dir.toString(), DataSize.ofBytes(500));
+        assertEquals(20, reopened.find(null, null, null, null, 100).size());
+        reopened.append(events(1));
+        assertEquals(21, reopened.find(null, null, null, null, 100).size());
+        assertTrue(Files.exists(dir.resolve("audit-000001.idx")));
+        reopened.close();
+    }
+}
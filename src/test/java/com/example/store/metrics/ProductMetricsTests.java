@@ -0,0 +1,50 @@
+package com.example.store.metrics;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProductMetricsTests {
+
+    private SimpleMeterRegistry registry;
+    private ProductMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new ProductMetrics(registry);
+    }
+
+    @Test
+    void timesOperations() {
+        metrics.record("list", TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.record("list", TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.record("findById", TimeUnit.MILLISECONDS.toNanos(1));
+
+        Timer list = registry.get(ProductMetrics.OPERATIONS).tag("operation", "list").timer();
+        assertEquals(2, list.count());
+        assertEquals(8, list.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, registry.get(ProductMetrics.OPERATIONS).tag("operation", "findById").timer().count());
+    }
+
+    @Test
+    void countsOutcomes() {
+        metrics.notFound("findById");
+        metrics.notFound("findById");
+        metrics.upserted(true, 3);
+        metrics.upserted(false, 1);
+        metrics.searched(10);
+        metrics.searched(0);
+
+        assertEquals(2, registry.get(ProductMetrics.NOT_FOUND).tag("operation", "findById").counter().count());
+        assertEquals(3, registry.get(ProductMetrics.UPSERTS).tag("result", "created").counter().count());
+        assertEquals(1, registry.get(ProductMetrics.UPSERTS).tag("result", "updated").counter().count());
+        assertEquals(2, registry.get(ProductMetrics.SEARCH_RESULTS).summary().count());
+        assertEquals(10, registry.get(ProductMetrics.SEARCH_RESULTS).summary().max());
+    }
+}
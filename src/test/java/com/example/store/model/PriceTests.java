@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 import java.math.BigDecimal;
 import java.util.Currency;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class PriceTests {
@@ -34,32 +36,78 @@ class PriceTests {
     @Test
     void equalsAndHashCode() {
         Price target = createPriceEur(1.49);
-        target.setId(1L);
-        Price otherEqualAmount = createPriceEur(1.49);
-        otherEqualAmount.setId(2L);
-        Price otherTransient = createPriceEur(1.49);
+        Price otherEqual = createPriceEur(1.49);
+        Price otherAmount = createPriceEur(1.55);
+        Price otherCurrency = createPriceEur(1.49);
+        otherCurrency.setCurrency(Currency.getInstance("RON"));
 
         assertEquals(target, target);
+        assertEquals(target, otherEqual);
+        assertEquals(target.hashCode(), otherEqual.hashCode());
 
-        assertNotEquals(target, otherEqualAmount);
-        assertNotEquals(target, otherTransient);
+        assertNotEquals(target, otherAmount);
+        assertNotEquals(target, otherCurrency);
         assertNotEquals(target, "{EUR 1.49}");
         assertNotEquals(target, null);
-        assertNotEquals(target.hashCode(), otherEqualAmount.hashCode());
-        assertNotEquals(target.hashCode(), otherTransient.hashCode());
     }
 
     @Test
-    void equalsAndHashCodeForTransient() {
-        Price target = createPriceEur(1.49);
-        Price otherTransient = createPriceEur(1.55);
+    void minorUnits() {
+        Price price = createPriceEur(1899.99);
+        assertEquals(189999, price.getMinorUnits());
 
-        assertEquals(target, target);
+        price.setMinorUnits(5);
+        assertEquals(new BigDecimal("0.05"), price.getAmount());
+    }
 
-        assertNotEquals(target, otherTransient);
-        assertNotEquals(target, "{EUR 1.49}");
-        assertNotEquals(target, null);
-        assertEquals(target.hashCode(), otherTransient.hashCode());
+    @Test
+    void parseAndFormatMinorUnits() {
+        assertEquals(189999, parse("1899.99"));
+        assertEquals(150, parse("1.495"));
+        assertEquals(149, parse("1.494999"));
+        assertEquals(-150, parse("-1.495"));
+        assertEquals(400, parse("4"));
+        assertEquals(50, parse(".5"));
+        assertThrows(NumberFormatException.class, () -> parse("a"));
+        assertThrows(NumberFormatException.class, () -> parse("-"));
+        assertThrows(ArithmeticException.class, () -> parse("99999999999999999999"));
+
+        char[] buffer = new char[MinorUnits.MAX_CHARS];
+        assertEquals("1899.90", new String(buffer, 0, MinorUnits.format(189990, buffer)));
+        assertEquals("0.05", new String(buffer, 0, MinorUnits.format(5, buffer)));
+        assertEquals("-0.05", new String(buffer, 0, MinorUnits.format(-5, buffer)));
+        assertEquals(MinorUnits.toBigDecimal(Long.MIN_VALUE).toPlainString(),
+                new String(buffer, 0, MinorUnits.format(Long.MIN_VALUE, buffer)));
+    }
+
+    @Test
+    void compareTo() {
+        Price cheaper = createPriceEur(1.49);
+        Price dearer = createPriceEur(1.50);
+        Price otherCurrency = createPriceEur(0.10);
+        otherCurrency.setCurrency(Currency.getInstance("USD"));
+
+        assertTrue(cheaper.compareTo(dearer) < 0);
+        assertTrue(dearer.compareTo(cheaper) > 0);
+        assertEquals(0, cheaper.compareTo(createPriceEur(1.49)));
+        assertTrue(cheaper.compareTo(otherCurrency) < 0);
+    }
+
+    @Test
+    void jsonRoundTrip() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Price price = createPriceEur(33.4);
+
+        assertEquals("{\"id\":null,\"amount\":33.40,\"currency\":\"EUR\"}", objectMapper.writeValueAsString(price));
+        assertEquals(price, objectMapper.readValue("{\"amount\":33.4,\"currency\":\"EUR\"}", Price.class));
+        assertEquals(price, objectMapper.readValue("{\"currency\":\"EUR\",\"id\":1,\"amount\":\"33.40\"}", Price.class));
+        assertEquals(price, objectMapper.readValue("{\"amount\":3.3396E1,\"currency\":\"EUR\"}", Price.class));
+        assertThrows(Exception.class, () -> objectMapper.readValue("{\"currency\":\"EUR\"}", Price.class));
+        assertThrows(Exception.class, () -> objectMapper.readValue("{\"amount\":true,\"currency\":\"EUR\"}", Price.class));
+    }
+
+    private static long parse(String amount) {
+        return MinorUnits.parse(amount.toCharArray(), 0, amount.length());
     }
 
     @Test
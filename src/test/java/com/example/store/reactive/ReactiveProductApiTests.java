@@ -0,0 +1,131 @@
+package com.example.store.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.store.model.Product;
+import com.example.store.security.config.TestSecurityConfig;
+
+/**
+ * The reactive read API over HTTP, against the start-up data set in a database of its own,
+ * answering as ProductControllerTests expects of the servlet endpoints.
+ */
+@SpringBootTest(properties = {
+        "store.reactive.enabled=true",
+        "store.reactive.port=0",
+        "spring.datasource.url=jdbc:h2:mem:reactive",
+        "store.reactive.r2dbc-url=r2dbc:pool:h2:mem:///reactive?maxSize=4" })
+@ActiveProfiles("IntegrationTest")
+@ContextConfiguration(classes = { TestSecurityConfig.class })
+class ReactiveProductApiTests {
+
+    private static final String UUID_TWO = "a18920fb-56cd-41c5-8264-ed617c038524";
+    private static final String UUID_MISS = "830e2825-67c5-4bec-8bda-eb16b4c03c50";
+
+    @Autowired
+    private ReactiveServer reactiveServer;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveServer.getPort()).build();
+    }
+
+    @Test
+    void listAllProducts() {
+        client.get().uri("/products").exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("ETag")
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(33)
+                .jsonPath("$.totalPages").isEqualTo(4)
+                .jsonPath("$.pageSize").isEqualTo(10)
+                .jsonPath("$.content[0].name").isEqualTo("Annibale Colombo Bed")
+                .jsonPath("$.content[0].price.amount").isEqualTo(1899.99)
+                .jsonPath("$.content[0].price.currency").isEqualTo("EUR");
+    }
+
+    @Test
+    void listSortedAndPaged() {
+        client.get().uri("/products?sort=price.amount,desc&size=2&page=1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.pageNumber").isEqualTo(1)
+                .jsonPath("$.content.length()").isEqualTo(2);
+        client.get().uri("/products?sort=password").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void listConditionally() {
+        String etag = client.get().uri("/products").exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        client.get().uri("/products").header("If-None-Match", etag).exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void streamProducts() {
+        List<Product> products = client.get().uri("/products?size=20")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Product.class).getResponseBody()
+                .collectList().block();
+
+        assertEquals(20, products.size());
+        assertEquals("Annibale Colombo Bed", products.get(0).getName());
+    }
+
+    @Test
+    void findById() {
+        client.get().uri("/products/" + UUID_TWO).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"0\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Two")
+                .jsonPath("$.id").isEqualTo(UUID_TWO)
+                .jsonPath("$.price.amount").isEqualTo(2.49)
+                .jsonPath("$.price.currency").isEqualTo("EUR");
+
+        client.get().uri("/products/" + UUID_TWO).header("If-None-Match", "\"0\"").exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void failFindById() {
+        client.get().uri("/products/" + UUID_MISS).exchange()
+                .expectStatus().isNotFound();
+        client.get().uri("/products/not-uuid").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void search() {
+        client.get().uri("/products/search?searchTerm=oil").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(2)
+                .jsonPath("$.content[0].name").isEqualTo("Cooking Oil")
+                .jsonPath("$.content[1].name").isEqualTo("Engine Oil")
+                .jsonPath("$.content[0].price.amount").isEqualTo(4.99);
+        client.get().uri("/products/search?search=Nothing").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(0);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.store.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Currency;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.example.store.dto.ProductField;
+import com.example.store.model.Price;
+import com.example.store.model.Product;
+import com.example.store.security.config.TestSecurityConfig;
+
+/**
+ * Price queries against the start-up data set, and the plans the database picks for them, for
+ * keyset pages and for compaction.
+ */
+@SpringBootTest
+@ActiveProfiles("IntegrationTest")
+@ContextConfiguration(classes = { TestSecurityConfig.class })
+class ProductRepositoryTests {
+
+    private static final Currency EUR = Currency.getInstance("EUR");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findByPrice() {
+        Page<Product> products = productRepository.findByPrice(EUR, 1000, 5000,
+                PageRequest.of(0, 3, Sort.by("price.amount")));
+
+        assertEquals(7, products.getTotalElements());
+        assertEquals(List.of(1099L, 1299L, 1299L),
+                products.map(product -> product.getPrice().getMinorUnits()).getContent());
+    }
+
+    @Test
+    void findCheapest() {
+        List<Product> products = productRepository.findCheapest(EUR, Limit.of(3));
+
+        assertEquals(List.of("Green Chili Pepper", "Green Bell Pepper"),
+                products.subList(0, 2).stream().map(Product::getName).toList());
+        assertEquals(149, products.get(2).getPrice().getMinorUnits());
+    }
+
+    // Rows carry the selected fields only, in field order, the price as its embeddable
+    @Test
+    void findFields() {
+        List<Map<String, Object>> rows = productRepository.searchFields(EnumSet.of(ProductField.NAME, ProductField.PRICE),
+                "oil", null, PageRequest.of(0, 10, Sort.by("name")));
+
+        assertEquals(2, rows.size());
+        assertEquals(List.of("name", "price"), List.copyOf(rows.get(0).keySet()));
+        assertEquals("Cooking Oil", rows.get(0).get("name"));
+        assertEquals(499, ((Price) rows.get(0).get("price")).getMinorUnits());
+        assertEquals(2, productRepository.countSearch("oil"));
+    }
+
+    // Ranges and the cheapest products are read through the price index, the latter in its order
+    // Escaped, a wildcard only matches itself
+    @Test
+    void suggestWithEscapedPrefix() {
+        assertEquals(1, productRepository.suggest("engin_", Limit.of(5)).size());
+        assertEquals(0, productRepository.suggest("engin\\_", Limit.of(5)).size());
+        assertEquals(0, productRepository.suggest("\\%oil", Limit.of(5)).size());
+    }
+
+    @Test
+    void priceQueriesUseIndex() {
+        String range = plan("select id from product where deleted = false and currency = 'EUR'"
+                + " and amount between 10 and 50");
+        String cheapest = plan("select id from product where deleted = false and currency = 'EUR'"
+                + " order by currency, amount, id fetch first 3 rows only");
+
+        assertTrue(range.contains("PRODUCT_PRICE_IDX"), range);
+        assertTrue(cheapest.contains("PRODUCT_PRICE_IDX"), cheapest);
+        assertTrue(cheapest.contains("index sorted"), cheapest);
+    }
+
+    // Compaction finds deleted products through their deletion time, live ones not being indexed there
+    @Test
+    void deletedProductsUseIndex() {
+        String due = plan("select id from product where deleted = true and deleted_at < current_timestamp"
+                + " order by deleted_at fetch first 500 rows only");
+
+        assertTrue(due.contains("PRODUCT_DELETED_IDX"), due);
+    }
+
+    // Keyset pages start at their cursor in the (name, id) index and read it in order
+    @Test
+    void keysetPagesUseIndex() {
+        String page = plan("select id from product where deleted = false"
+                + " and (name, id) > ('Kiwi', '33b5785c-8d8a-4301-b5b3-b07b67347173')"
+                + " order by name, id fetch first 10 rows only");
+
+        assertTrue(page.contains("PRODUCT_NAME_IDX: NAME >="), page);
+        assertTrue(page.contains("index sorted"), page);
+    }
+
+    private String plan(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+}
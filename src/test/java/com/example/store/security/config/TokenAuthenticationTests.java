@@ -0,0 +1,114 @@
+package com.example.store.security.config;
+
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.store.log.AuditEvent;
+import com.example.store.log.AuditQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The production SecurityConfig with bearer tokens enabled, on a database of its own as
+ * its start-up creates the default users.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "store.security.token.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:tokens" })
+class TokenAuthenticationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoSpyBean
+    private AuditQueue auditQueue;
+
+    private static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String token(String username, String password) throws Exception {
+        String body = mockMvc.perform(post("/auth/token").header("Authorization", basic(username, password)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").value(900))
+                .andExpect(request().sessionAttribute("SPRING_SECURITY_CONTEXT", nullValue()))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("token").asText();
+    }
+
+    @Test
+    void bearerToken() throws Exception {
+        String token = token("user", "user");
+
+        mockMvc.perform(get("/products/33b5785c-8d8a-4301-b5b3-b07b67347173")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(request().sessionAttribute("SPRING_SECURITY_CONTEXT", nullValue()));
+        mockMvc.perform(post("/products")
+                .header("Authorization", "Bearer " + token)
+                .header("Content-type", "application/json")
+                .content("{\"name\": \"Denied\", \"price\": {\"amount\": 1.49, \"currency\": \"EUR\"} }"))
+                .andExpect(status().isForbidden());
+    }
+
+    // Token principals are plain usernames, which the audit trail records as such
+    @Test
+    void auditsBearerTokenWrites() throws Exception {
+        String token = token("admin", "admin");
+        UUID id = UUID.randomUUID();
+
+        mockMvc.perform(delete("/products/" + id).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<AuditEvent> event = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(auditQueue, atLeastOnce()).publish(event.capture());
+        AuditEvent deleted = event.getAllValues().stream()
+                .filter(audited -> audited.productIds().contains(id))
+                .findFirst().orElseThrow();
+        assertEquals("deleteById", deleted.method());
+        assertEquals("admin", deleted.username());
+    }
+
+    @Test
+    void failBearerToken() throws Exception {
+        mockMvc.perform(post("/auth/token").header("Authorization", basic("user", "wrong")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/products/33b5785c-8d8a-4301-b5b3-b07b67347173")
+                .header("Authorization", "Bearer " + token("user", "user") + "x"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void formLogin() throws Exception {
+        mockMvc.perform(get("/products").header("Accept", "text/html"))
+                .andExpect(status().is3xxRedirection());
+        mockMvc.perform(post("/login").param("username", "admin").param("password", "admin"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(request().sessionAttribute("SPRING_SECURITY_CONTEXT", notNullValue()));
+    }
+}
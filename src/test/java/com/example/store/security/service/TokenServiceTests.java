@@ -0,0 +1,91 @@
+package com.example.store.security.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+class TokenServiceTests {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+    private static final String OLD_KEY = "k1:" + Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String NEW_KEY = "k2:" + Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private static TokenService tokenService(Instant now, String... keys) {
+        return new TokenService(List.of(keys), Duration.ofMinutes(15), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static Authentication admin() {
+        return UsernamePasswordAuthenticationToken.authenticated("admin", "admin",
+                List.of(new SimpleGrantedAuthority("ROLE_User"), new SimpleGrantedAuthority("ROLE_Administrator")));
+    }
+
+    @Test
+    void issueAndVerify() {
+        TokenService tokenService = tokenService(NOW, NEW_KEY, OLD_KEY);
+        String token = tokenService.issue(admin());
+
+        assertTrue(token.startsWith("k2."));
+        Authentication authentication = tokenService.verify(token).orElseThrow();
+        assertEquals("admin", authentication.getName());
+        assertTrue(authentication.isAuthenticated());
+        assertEquals(Set.of("ROLE_User", "ROLE_Administrator"), authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void failVerifyExpired() {
+        String token = tokenService(NOW, NEW_KEY).issue(admin());
+
+        assertTrue(tokenService(NOW.plus(Duration.ofMinutes(14)), NEW_KEY).verify(token).isPresent());
+        assertTrue(tokenService(NOW.plus(Duration.ofMinutes(15)), NEW_KEY).verify(token).isEmpty());
+    }
+
+    @Test
+    void failVerifyTampered() {
+        TokenService tokenService = tokenService(NOW, NEW_KEY);
+        String token = tokenService.issue(admin());
+        String[] parts = token.split("\\.");
+        String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (NOW.plusSeconds(3600).getEpochSecond() + "\nROLE_Administrator\nuser").getBytes());
+
+        assertTrue(tokenService.verify(parts[0] + "." + forged + "." + parts[2]).isEmpty());
+        assertTrue(tokenService.verify(token.substring(0, token.length() - 2)).isEmpty());
+        assertTrue(tokenService.verify("k9." + parts[1] + "." + parts[2]).isEmpty());
+        assertTrue(tokenService.verify("not a token").isEmpty());
+        assertTrue(tokenService.verify("k2.%%%.%%%").isEmpty());
+    }
+
+    @Test
+    void keyRotation() {
+        String oldToken = tokenService(NOW, OLD_KEY).issue(admin());
+
+        // Successor first: old tokens still verify, new ones are signed with the successor
+        TokenService rotated = tokenService(NOW, NEW_KEY, OLD_KEY);
+        assertTrue(rotated.verify(oldToken).isPresent());
+        assertTrue(rotated.issue(admin()).startsWith("k2."));
+
+        // Retired
+        assertTrue(tokenService(NOW, NEW_KEY).verify(oldToken).isEmpty());
+    }
+
+    @Test
+    void failInvalidKeys() {
+        assertThrows(IllegalArgumentException.class, () -> tokenService(NOW, "nosecret"));
+        assertThrows(IllegalArgumentException.class, () -> tokenService(NOW, "a.b:" + NEW_KEY.substring(3)));
+        assertThrows(IllegalArgumentException.class, () -> tokenService(NOW, "short:c2hvcnQ="));
+        assertTrue(tokenService(NOW).issue(admin()).startsWith("local."));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.store.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.store.security.model.Role;
+import com.example.store.security.model.User;
+import com.example.store.security.repository.RoleRepository;
+import com.example.store.security.repository.UserRepository;
+
+/**
+ * Cached users being evicted by changes written through JPA, against the default users and
+ * roles in a database of its own.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:users")
+class UserChangeListenerTests {
+
+    @Autowired
+    private UserDetailServiceImpl userDetailService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Set<String> authorities(String username) {
+        return userDetailService.loadUserByUsername(username).getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+    }
+
+    private Role role(String name) {
+        for (Role role : roleRepository.findAll()) {
+            if (role.getName().equals(name)) {
+                return role;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private void createUser(String username, Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        user.setRoles(new HashSet<>(Set.of(role)));
+        userRepository.save(user);
+    }
+
+    // Only the user's roles change, not its own columns
+    @Test
+    void roleChangeEvictsUser() {
+        createUser("promoted", role("User"));
+        assertEquals(Set.of("ROLE_User"), authorities("promoted"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findByUsername("promoted").orElseThrow();
+            user.getRoles().add(role("Administrator"));
+        });
+
+        assertEquals(Set.of("ROLE_User", "ROLE_Administrator"), authorities("promoted"));
+    }
+
+    @Test
+    void renameEvictsPreviousUsername() {
+        createUser("before", role("User"));
+        assertEquals(Set.of("ROLE_User"), authorities("before"));
+
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findByUsername("before").orElseThrow().setUsername("after"));
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailService.loadUserByUsername("before"));
+        assertEquals(Set.of("ROLE_User"), authorities("after"));
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.store.security.service;
 
+import java.time.Duration;
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,6 +9,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,12 +21,22 @@ import static org.mockito.Mockito.*;
 import com.example.store.security.model.Role;
 import com.example.store.security.model.User;
 import com.example.store.security.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 class UserDetailServiceImplTest {
 
     @Mock
     private UserRepository userRepository;
 
+    private long nanos;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Spy
+    private UserDetailsCache userDetailsCache = new UserDetailsCache(100, Duration.ofMinutes(5), () -> nanos, registry);
+
     @InjectMocks
     private UserDetailServiceImpl userDetailService;
 
@@ -31,6 +45,20 @@ class UserDetailServiceImplTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    private void givenUser(String username, String... roleNames) {
+        Set<Role> roles = new HashSet<>();
+        for (String roleName : roleNames) {
+            Role role = new Role();
+            role.setName(roleName);
+            roles.add(role);
+        }
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("testpass");
+        user.setRoles(roles);
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+    }
+
     @Test
     void loadUser() {
         Role userRole = new Role();
@@ -63,4 +91,75 @@ class UserDetailServiceImplTest {
         assertThrows(UsernameNotFoundException.class, () -> userDetailService.loadUserByUsername(username));
         verify(userRepository).findByUsername(username);
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadUserFromCache() {
+        givenUser("testuser", "User");
+
+        UserDetails first = userDetailService.loadUserByUsername("testuser");
+        UserDetails second = userDetailService.loadUserByUsername("testuser");
+
+        assertEquals("testuser", second.getUsername());
+        assertEquals(first.getAuthorities(), second.getAuthorities());
+        verify(userRepository, times(1)).findByUsername("testuser");
+        assertEquals(1, userDetailsCache.stats().hitCount());
+        assertEquals(0.5, registry.get(UserDetailsCache.HIT_RATIO).gauge().value());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", UserDetailsCache.NAME).tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void loadUserAfterInvalidationOrExpiry() {
+        givenUser("testuser", "User");
+
+        userDetailService.loadUserByUsername("testuser");
+        userDetailsCache.invalidate("testuser");
+        userDetailService.loadUserByUsername("testuser");
+        userDetailsCache.invalidateAll();
+        userDetailService.loadUserByUsername("testuser");
+        nanos += Duration.ofMinutes(5).toNanos();
+        userDetailService.loadUserByUsername("testuser");
+
+        verify(userRepository, times(4)).findByUsername("testuser");
+    }
+
+    // A load that read the user before an invalidation doesn't cache it afterwards
+    @Test
+    void skipsLoadsRacingWithInvalidation() {
+        when(userRepository.findByUsername("testuser")).thenAnswer(invocation -> {
+            User user = new User();
+            user.setUsername("testuser");
+            user.setPassword("oldpass");
+            user.setRoles(Set.of());
+            userDetailsCache.invalidateAll();
+            return Optional.of(user);
+        });
+
+        userDetailService.loadUserByUsername("testuser");
+
+        assertTrue(userDetailsCache.get("testuser").isEmpty());
+    }
+
+    @Test
+    void loadUserSharesAuthorities() {
+        givenUser("first", "User");
+        givenUser("second", "User", "Administrator");
+
+        var first = userDetailService.loadUserByUsername("first").getAuthorities().iterator().next();
+        var second = userDetailService.loadUserByUsername("second").getAuthorities().stream()
+                .filter(authority -> authority.getAuthority().equals("ROLE_User")).findFirst().orElseThrow();
+
+        assertSame(first, second);
+    }
+
+    // Authentication erases the password of the user it was given, which mustn't reach the cache
+    @Test
+    void loadUserKeepsCachedCredentials() {
+        givenUser("testuser", "User");
+
+        ((CredentialsContainer) userDetailService.loadUserByUsername("testuser")).eraseCredentials();
+        ((CredentialsContainer) userDetailService.loadUserByUsername("testuser")).eraseCredentials();
+
+        assertEquals("testpass", userDetailService.loadUserByUsername("testuser").getPassword());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.store.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Currency;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.store.model.Price;
+import com.example.store.model.Product;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProductCacheTests {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ProductCache cache;
+
+    private static Product createTestProduct(String name) {
+        Price price = new Price();
+        price.setAmount(BigDecimal.valueOf(1.49));
+        price.setCurrency(Currency.getInstance("EUR"));
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        return product;
+    }
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductCache(2, Duration.ofMinutes(1), nanos::get, registry);
+    }
+
+    @Test
+    void putAndGet() {
+        Product product = createTestProduct("One");
+        cache.put(product, cache.generation());
+
+        assertSame(product, cache.get(product.getId()).orElseThrow());
+        assertTrue(cache.get(UUID.randomUUID()).isEmpty());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(1.0, gets("hit"));
+        assertEquals(1.0, gets("miss"));
+    }
+
+    @Test
+    void skipsLoadsRacingWithWrites() {
+        Product product = createTestProduct("One");
+        long generation = cache.generation();
+        cache.invalidate(product.getId());
+        cache.put(product, generation);
+
+        assertTrue(cache.get(product.getId()).isEmpty());
+    }
+
+    @Test
+    void invalidate() {
+        Product product = createTestProduct("One");
+        cache.put(product, cache.generation());
+        cache.invalidate(product.getId());
+
+        assertTrue(cache.get(product.getId()).isEmpty());
+    }
+
+    @Test
+    void evictsBySizeAndTtl() {
+        cache.put(createTestProduct("One"), cache.generation());
+        cache.put(createTestProduct("Two"), cache.generation());
+        cache.put(createTestProduct("Three"), cache.generation());
+        assertEquals(2, cache.estimatedSize());
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        assertEquals(0, cache.estimatedSize());
+        assertEquals(3, cache.stats().evictionCount());
+        assertEquals(3.0, registry.get("cache.evictions").tag("cache", ProductCache.NAME).functionCounter().count());
+    }
+
+    private double gets(String result) {
+        return registry.get("cache.gets").tag("cache", ProductCache.NAME).tag("result", result).functionCounter().count();
+    }
+}
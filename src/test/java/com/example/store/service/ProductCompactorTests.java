@@ -0,0 +1,133 @@
+package com.example.store.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.example.store.dto.CompactionReport;
+import com.example.store.model.ArchivedProduct;
+import com.example.store.model.Price;
+import com.example.store.model.Product;
+import com.example.store.repository.ProductArchiveRepository;
+import com.example.store.security.config.TestSecurityConfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Compaction against a database of its own, products being deleted and archived for real.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:compaction",
+        "store.compaction.batch-size=2",
+        "store.compaction.pause=PT0S" })
+@ActiveProfiles("IntegrationTest")
+@ContextConfiguration(classes = { TestSecurityConfig.class })
+class ProductCompactorTests {
+
+    @Autowired
+    private ProductCompactor productCompactor;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductArchiveRepository archiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void archiveDeletedInBatches() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUID id = productService.create(product("Compacted " + i)).getId();
+            productService.deleteById(id);
+            ids.add(id);
+        }
+        Instant deletedAt = jdbcTemplate.queryForObject("select deleted_at from product where id = ?",
+                Instant.class, ids.get(0));
+        assertNotNull(deletedAt);
+        double archivedBefore = meterRegistry.counter(ProductCompactor.ARCHIVED).count();
+
+        // Nothing is due within the retention window
+        assertEquals(0, productCompactor.compact().orElseThrow().getArchived());
+
+        CompactionReport report = productCompactor.compact(Instant.now().plusSeconds(1)).orElseThrow();
+
+        assertEquals(5, report.getArchived());
+        assertEquals(3, report.getBatches());
+        assertEquals(5, meterRegistry.counter(ProductCompactor.ARCHIVED).count() - archivedBefore);
+        assertEquals(0, meterRegistry.get(ProductCompactor.PENDING).gauge().value());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from product where deleted = true", Long.class));
+        List<ArchivedProduct> archived = archiveRepository.findByProductId(ids.get(0));
+        assertEquals(1, archived.size());
+        assertEquals("Compacted 0", archived.get(0).getName());
+        assertEquals(149, archived.get(0).getPrice().getMinorUnits());
+        assertEquals(deletedAt, archived.get(0).getDeletedAt());
+        assertTrue(archived.get(0).getVersion() > 0);
+    }
+
+    // Archived Ids stay taken, as those of soft-deleted products
+    @Test
+    void archivedIdNotReused() {
+        UUID id = productService.create(product("Archived")).getId();
+        productService.deleteById(id);
+        productCompactor.compact(Instant.now().plusSeconds(1));
+
+        assertEquals(1, archiveRepository.findByProductId(id).size());
+        assertThrows(DuplicateKeyException.class, () -> productService.upsert(id, product("Reused")));
+    }
+
+    // Batch PUT and imports go through upsertAll(), which holds them to the same rule
+    @Test
+    void archivedIdNotReusedInBatch() {
+        UUID id = productService.create(product("Archived in batch")).getId();
+        productService.deleteById(id);
+        productCompactor.compact(Instant.now().plusSeconds(1));
+
+        Product reused = product("Reused in batch");
+        reused.setId(id);
+        assertThrows(DuplicateKeyException.class, () -> productService.upsertAll(List.of(reused)));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from product where id = ?", Long.class, id));
+    }
+
+    // Live products are never archived
+    @Test
+    void liveProductsKept() {
+        long live = jdbcTemplate.queryForObject("select count(*) from product where deleted = false", Long.class);
+
+        productCompactor.compact(Instant.now().plusSeconds(1));
+
+        assertEquals(live, jdbcTemplate.queryForObject("select count(*) from product where deleted = false", Long.class));
+    }
+
+    private static Product product(String name) {
+        Price price = new Price();
+        price.setAmount(new BigDecimal("1.49"));
+        price.setCurrency(Currency.getInstance("EUR"));
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        return product;
+    }
+}
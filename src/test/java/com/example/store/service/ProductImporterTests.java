@@ -0,0 +1,94 @@
+package com.example.store.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Currency;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.example.store.dto.ImportReport;
+import com.example.store.model.Price;
+import com.example.store.model.Product;
+import com.example.store.security.config.TestSecurityConfig;
+
+/**
+ * Imports failing to write, against a database of their own for the writes to commit.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import",
+        "store.batch.chunk-size=3" })
+@ActiveProfiles("IntegrationTest")
+@ContextConfiguration(classes = { TestSecurityConfig.class })
+class ProductImporterTests {
+
+    @Autowired
+    private ProductImporter productImporter;
+
+    @Autowired
+    private ProductService productService;
+
+    // A row reusing the Id of a deleted product fails its chunk, the other rows of which
+    // are still imported
+    @Test
+    void rejectOnlyFailingRowsOfChunk() throws Exception {
+        UUID deleted = productService.create(product("Deleted")).getId();
+        productService.deleteById(deleted);
+        UUID first = UUID.randomUUID();
+        UUID last = UUID.randomUUID();
+
+        ImportReport report = productImporter.importNdjson(ndjson(
+                row(first, "First"),
+                row(deleted, "Reused"),
+                row(last, "Last")));
+
+        assertEquals(3, report.getProcessed());
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getRejected());
+        assertEquals(2, report.getErrors().get(0).getRow());
+        assertEquals("Write failed: Product Id " + deleted + " belongs to a deleted product",
+                report.getErrors().get(0).getMessage());
+        assertTrue(productService.findById(first).isPresent());
+        assertTrue(productService.findById(last).isPresent());
+    }
+
+    // Rows that are valid JSON but not products are rejected on their own
+    @Test
+    void rejectRowsThatAreNotObjects() throws Exception {
+        UUID imported = UUID.randomUUID();
+
+        ImportReport report = productImporter.importNdjson(ndjson("null", "[]", "42", row(imported, "Imported")));
+
+        assertEquals(4, report.getProcessed());
+        assertEquals(1, report.getImported());
+        assertEquals(3, report.getRejected());
+        assertEquals("Malformed row: not a JSON object", report.getErrors().get(0).getMessage());
+        assertTrue(productService.findById(imported).isPresent());
+    }
+
+    private static ByteArrayInputStream ndjson(String... rows) {
+        return new ByteArrayInputStream(String.join("\n", rows).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String row(UUID id, String name) {
+        return "{\"id\": \"" + id + "\", \"name\": \"" + name + "\", \"price\": {\"amount\": 1.49, \"currency\": \"EUR\"} }";
+    }
+
+    private static Product product(String name) {
+        Price price = new Price();
+        price.setAmount(new BigDecimal("1.49"));
+        price.setCurrency(Currency.getInstance("EUR"));
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        return product;
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.store.service;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
 import java.math.BigDecimal;
 import java.util.Currency;
@@ -9,22 +12,37 @@ import java.util.Currency;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.example.store.dto.PriceFilter;
+import com.example.store.dto.ProductSuggestion;
+import com.example.store.index.ProductNameIndex;
+import com.example.store.metrics.ProductMetrics;
 import com.example.store.model.Price;
 import com.example.store.model.Product;
+import com.example.store.repository.ProductNameView;
 import com.example.store.repository.ProductRepository;
-import com.example.store.util.ProductUpdater;
 
 @SpringBootTest
 public class ProductServiceTests {
@@ -32,12 +50,34 @@ public class ProductServiceTests {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductNameIndex productNameIndex;
+
+    @Mock
+    private CatalogCounter catalogCounter;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductMetrics productMetrics;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final TransactionStatus transactionStatus = mock(TransactionStatus.class);
+
     @InjectMocks
     private ProductService productService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(transactionStatus));
     }
 
     private static Price createPriceEur(double amount) {
@@ -100,6 +140,28 @@ public class ProductServiceTests {
         verify(productRepository).findById(UUID_ONE);
     }
 
+    @Test
+    void findByIdCached() {
+        Product target = createTestProduct("One");
+        when(productCache.get(UUID_ONE)).thenReturn(Optional.of(target));
+
+        Product result = productService.findById(UUID_ONE).orElseThrow();
+
+        assertEquals("One", result.getName());
+        verify(productRepository, never()).findById(UUID_ONE);
+    }
+
+    @Test
+    void findByIdPopulatesCache() {
+        Product target = createTestProduct("One");
+        when(productCache.generation()).thenReturn(7L);
+        when(productRepository.findById(UUID_ONE)).thenReturn(Optional.of(target));
+
+        productService.findById(UUID_ONE);
+
+        verify(productCache).put(target, 7L);
+    }
+
     @Test
     void listAllProducts() {
         Pageable pageable = Pageable.ofSize(3);
@@ -138,6 +200,36 @@ public class ProductServiceTests {
         verify(productRepository).findAll(pageable);
     }
 
+    @Test
+    void listWithLiveProductCounter() {
+        Pageable pageable = Pageable.ofSize(2);
+        when(catalogCounter.liveProducts()).thenReturn(OptionalLong.of(33));
+        when(productRepository.findAllSliced(pageable)).thenReturn(new SliceImpl<Product>(List.of(
+                createTestProduct("One"),
+                createTestProduct("Two")), pageable, true));
+
+        Page<Product> result = productService.list(pageable);
+
+        assertEquals(2, result.getNumberOfElements());
+        assertEquals(33, result.getTotalElements());
+        assertEquals(17, result.getTotalPages());
+        verify(productRepository, never()).findAll(pageable);
+    }
+
+    @Test
+    void listByPrice() {
+        Pageable pageable = Pageable.ofSize(5);
+        Currency eur = Currency.getInstance("EUR");
+        when(productRepository.findByPrice(any(), any(Long.class), any(Long.class), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        productService.listByPrice(new PriceFilter(eur, new BigDecimal("9.99"), null), pageable);
+        productService.listByPrice(new PriceFilter(eur, null, new BigDecimal("50")), pageable);
+
+        verify(productRepository).findByPrice(eur, 999, Long.MAX_VALUE, pageable);
+        verify(productRepository).findByPrice(eur, 0, 5000, pageable);
+    }
+
     @Test
     void search() {
         Pageable pageable = Pageable.ofSize(3);
@@ -151,45 +243,105 @@ public class ProductServiceTests {
 
         assertEquals(3, results.getNumberOfElements());
         verify(productRepository).search("Apple", pageable);
+        verify(productMetrics).searched(3);
+    }
+
+    @Test
+    void searchThroughNameIndex() {
+        Pageable pageable = Pageable.ofSize(3);
+        Page<Product> products = new PageImpl<Product>(List.of(createTestProduct("One apple")));
+        when(productNameIndex.candidates("Apple")).thenReturn(Optional.of(Set.of(UUID_OTHER)));
+        when(productRepository.searchAmong("Apple", Set.of(UUID_OTHER), pageable)).thenReturn(products);
+
+        Page<Product> results = productService.search("Apple", pageable);
+
+        assertEquals(1, results.getNumberOfElements());
+        verify(productRepository).searchAmong("Apple", Set.of(UUID_OTHER), pageable);
+    }
+
+    @Test
+    void searchWithoutIndexCandidates() {
+        Pageable pageable = Pageable.ofSize(3);
+        when(productNameIndex.candidates("Pear")).thenReturn(Optional.of(Set.of()));
+
+        Page<Product> results = productService.search("Pear", pageable);
+
+        assertEquals(0, results.getTotalElements());
+        verify(productRepository, never()).search("Pear", pageable);
+    }
+
+    @Test
+    void suggestThroughNameIndex() {
+        List<ProductSuggestion> suggestions = List.of(new ProductSuggestion(UUID_ONE, "One apple"));
+        when(productNameIndex.suggest("one", 5)).thenReturn(Optional.of(suggestions));
+
+        assertEquals(suggestions, productService.suggest("one", 5));
+        verify(productRepository, never()).suggest(any(), any());
+    }
+
+    // Before the index is built
+    @Test
+    void suggestFromDatabase() {
+        ProductNameView view = mock(ProductNameView.class);
+        when(view.getId()).thenReturn(UUID_ONE);
+        when(view.getName()).thenReturn("One apple");
+        when(productNameIndex.suggest(" one", 5)).thenReturn(Optional.empty());
+        when(productRepository.suggest("one", Limit.of(5))).thenReturn(List.of(view));
+
+        List<ProductSuggestion> suggestions = productService.suggest(" one", 5);
+
+        assertEquals(1, suggestions.size());
+        assertEquals(UUID_ONE, suggestions.get(0).getId());
+        assertEquals("One apple", suggestions.get(0).getName());
+    }
+
+    // Matched as written, same as by the name index
+    @Test
+    void suggestFromDatabaseEscapesWildcards() {
+        when(productNameIndex.suggest("50%_off\\", 5)).thenReturn(Optional.empty());
+
+        productService.suggest("50%_off\\", 5);
+
+        verify(productRepository).suggest("50\\%\\_off\\\\", Limit.of(5));
     }
 
     @Test
     void create() {
         Product product = createTestProduct("One");
-        when(productRepository.save(any(Product.class))).thenReturn(product);
 
         Product result = productService.create(product);
+        verify(productNameIndex).put(result.getId(), "One", 0L);
+        verify(catalogCounter).increment();
 
         assertEquals("One", result.getName());
-        assertEquals(UUID_ONE, result.getId());
+        // Given a new Id, rather than overwriting the product with the one in the payload
+        assertNotEquals(UUID_ONE, result.getId());
         assertEquals(createPriceAmount(1.49), result.getPrice().getAmount());
         assertEquals("EUR", result.getPrice().getCurrency().getCurrencyCode());
-        verify(productRepository).save(product);
+        verify(productRepository).persistAll(List.of(product));
     }
 
     @Test
     void createFreeProduct() {
         Product product = createTestProduct("Zero");
         product.setPrice(createPriceEur(0));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
 
         Product result = productService.create(product);
 
         assertEquals(createPriceAmount(0), result.getPrice().getAmount());
         assertEquals("EUR", result.getPrice().getCurrency().getCurrencyCode());
-        verify(productRepository).save(product);
+        verify(productRepository).persistAll(List.of(product));
     }
 
     @Test
     void createProductWithRounding() {
         Product product = createTestProduct("One");
         product.setPrice(createPriceEur(1.495));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
 
         Product result = productService.create(product);
 
         assertEquals(createPriceAmount(1.5), result.getPrice().getAmount());
-        verify(productRepository).save(product);
+        verify(productRepository).persistAll(List.of(product));
     }
 
     @Test
@@ -197,20 +349,25 @@ public class ProductServiceTests {
         Price updatedPrice = createPriceEur(1.39);
         updatedPrice.setCurrency(Currency.getInstance("RON"));
 
-        Product target = createTestProduct("One");
         Product update = createTestProduct("OneChanged");
         update.setPrice(updatedPrice);
-        when(productRepository.findById(UUID_ONE)).thenReturn(Optional.of(target));
-        when(productRepository.save(any(Product.class))).thenReturn(ProductUpdater.prepareUpdate(target, update));
+        when(productRepository.merge(UUID_ONE, update, true, null)).thenAnswer(invocation -> {
+            update.setId(UUID_ONE);
+            update.setVersion(1);
+            return Optional.of(update);
+        });
 
         Product result = productService.upsert(UUID_ONE, update);
 
         assertEquals("OneChanged", result.getName());
         assertEquals(UUID_ONE, result.getId());
+        assertEquals(1, result.getVersion());
         assertEquals(createPriceAmount(1.39), result.getPrice().getAmount());
         assertEquals("RON", result.getPrice().getCurrency().getCurrencyCode());
-        verify(productRepository).findById(UUID_ONE);
-        verify(productRepository).save(target);
+        verify(productRepository, never()).findById(UUID_ONE);
+        verify(productCache).invalidate(UUID_ONE);
+        verify(catalogCounter, never()).increment();
+        verify(productMetrics).upserted(false, 1);
     }
 
     @Test
@@ -218,17 +375,66 @@ public class ProductServiceTests {
         Price price = createPriceEur(4.49);
         Product newProduct = createTestProduct("Four");
         newProduct.setPrice(price);
-        when(productRepository.findById(UUID_FOUR)).thenReturn(Optional.empty());
-        when(productRepository.save(any(Product.class))).thenReturn(newProduct);
+        when(productRepository.merge(UUID_FOUR, newProduct, true, null)).thenAnswer(invocation -> {
+            newProduct.setId(UUID_FOUR);
+            return Optional.of(newProduct);
+        });
 
         Product result = productService.upsert(UUID_FOUR, newProduct);
 
         assertEquals("Four", result.getName());
         assertEquals(UUID_FOUR, result.getId());
+        assertEquals(0, result.getVersion());
         assertEquals(createPriceAmount(4.49), result.getPrice().getAmount());
         assertEquals("EUR", result.getPrice().getCurrency().getCurrencyCode());
-        verify(productRepository).findById(UUID_FOUR);
-        verify(productRepository).save(newProduct);
+        verify(catalogCounter).increment();
+        verify(productMetrics).upserted(true, 1);
+    }
+
+    @Test
+    void upsertRetriesAfterConcurrentCreate() {
+        Product newProduct = createTestProduct("Four");
+        when(productRepository.merge(UUID_FOUR, newProduct, true, null))
+                .thenThrow(new DuplicateKeyException("Duplicate"))
+                .thenAnswer(invocation -> {
+                    newProduct.setVersion(1);
+                    return Optional.of(newProduct);
+                });
+
+        Product result = productService.upsert(UUID_FOUR, newProduct);
+
+        assertEquals(1, result.getVersion());
+        verify(productRepository, times(2)).merge(UUID_FOUR, newProduct, true, null);
+        verify(catalogCounter, never()).increment();
+        verify(productMetrics).upserted(false, 1);
+    }
+
+    @Test
+    void updateIfVersionMismatch() {
+        Product update = createTestProduct("OneChanged");
+        when(productRepository.merge(UUID_ONE, update, false, 3L)).thenReturn(Optional.empty());
+
+        Optional<Product> result = productService.updateIfVersion(UUID_ONE, update, 3L);
+
+        assertTrue(result.isEmpty());
+        verify(catalogCounter, never()).increment();
+        verify(productCache, never()).invalidate(UUID_ONE);
+        verify(productMetrics, never()).upserted(false, 1);
+    }
+
+    @Test
+    void updateIfAnyVersion() {
+        Product update = createTestProduct("OneChanged");
+        when(productRepository.merge(UUID_ONE, update, false, null)).thenAnswer(invocation -> {
+            update.setVersion(2);
+            return Optional.of(update);
+        });
+
+        Optional<Product> result = productService.updateIfVersion(UUID_ONE, update, null);
+
+        assertEquals(2, result.orElseThrow().getVersion());
+        verify(productRepository).merge(UUID_ONE, update, false, null);
+        verify(productMetrics).upserted(false, 1);
     }
 
     @Test
@@ -236,28 +442,39 @@ public class ProductServiceTests {
         Price updatedPrice = createPriceEur(1.39);
         updatedPrice.setCurrency(Currency.getInstance("RON"));
 
-        Product target = createTestProduct("One");
-        when(productRepository.findById(UUID_ONE)).thenReturn(Optional.of(target));
-        when(productRepository.save(any(Product.class)))
-                .thenReturn(ProductUpdater.preparePatchPrice(target, updatedPrice));
+        Product updated = createTestProduct("One");
+        updated.setPrice(updatedPrice);
+        when(productRepository.updatePrice(UUID_ONE, updatedPrice)).thenReturn(Optional.of(updated));
 
         Product result = productService.patchPrice(UUID_ONE, updatedPrice).orElseThrow();
 
         assertEquals(createPriceAmount(1.39), result.getPrice().getAmount());
         assertEquals("RON", result.getPrice().getCurrency().getCurrencyCode());
-        verify(productRepository).findById(UUID_ONE);
-        verify(productRepository).save(target);
+        verify(productRepository, never()).findById(UUID_ONE);
+        verify(productRepository, never()).save(any(Product.class));
+        verify(productCache).invalidate(UUID_ONE);
+        verify(catalogVersion).changed();
+    }
+
+    @Test
+    void patchPriceOfMissing() {
+        Price price = createPriceEur(1.39);
+        when(productRepository.updatePrice(UUID_FOUR, price)).thenReturn(Optional.empty());
+
+        assertTrue(productService.patchPrice(UUID_FOUR, price).isEmpty());
+        verify(productCache, never()).invalidate(UUID_FOUR);
+        verify(productMetrics).notFound("patchPrice");
     }
 
     @Test
     void patchName() {
-        Product target = createTestProduct("One");
+        Product updated = createTestProduct("One");
+        updated.setName("OneChanged");
+        updated.setVersion(1);
         Product updatedHavingNullPrice = createTestProduct("OneChanged");
         updatedHavingNullPrice.setPrice(null);
 
-        when(productRepository.findById(UUID_ONE)).thenReturn(Optional.of(target));
-        when(productRepository.save(any(Product.class)))
-                .thenReturn(ProductUpdater.preparePatchName(target, updatedHavingNullPrice));
+        when(productRepository.updateName(UUID_ONE, "OneChanged")).thenReturn(Optional.of(updated));
 
         Product result = productService.patchName(UUID_ONE, updatedHavingNullPrice).orElseThrow();
 
@@ -266,13 +483,37 @@ public class ProductServiceTests {
         // Assert that the price is not changed
         assertEquals(createPriceAmount(1.49), result.getPrice().getAmount());
         assertEquals("EUR", result.getPrice().getCurrency().getCurrencyCode());
-        verify(productRepository).findById(UUID_ONE);
-        verify(productRepository).save(target);
+        verify(productRepository, never()).findById(UUID_ONE);
+        verify(productNameIndex).put(UUID_ONE, "OneChanged", 1L);
     }
 
     @Test
     void deleteById() {
+        when(productRepository.softDelete(any(), any())).thenReturn(true);
+
         productService.deleteById(UUID_ONE);
-        verify(productRepository).deleteById(UUID_ONE);
+        verify(productRepository).softDelete(any(UUID.class), any(Instant.class));
+        verify(productNameIndex).remove(UUID_ONE);
+        verify(productCache).invalidate(UUID_ONE);
+        verify(catalogCounter).decrement();
+        verify(catalogVersion).changed();
+    }
+
+    @Test
+    void deleteByIdIgnoresMissing() {
+        when(productRepository.softDelete(any(), any())).thenReturn(false);
+
+        productService.deleteById(UUID_FOUR);
+        verify(productNameIndex, never()).remove(UUID_FOUR);
+        verify(catalogCounter, never()).decrement();
+        verify(productMetrics).notFound("deleteById");
+    }
+
+    @Test
+    void findByIdCountsMissing() {
+        when(productRepository.findById(UUID_FOUR)).thenReturn(Optional.empty());
+
+        productService.findById(UUID_FOUR);
+        verify(productMetrics).notFound("findById");
     }
 }
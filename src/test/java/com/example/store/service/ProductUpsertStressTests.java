@@ -0,0 +1,150 @@
+package com.example.store.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.example.store.model.Price;
+import com.example.store.model.Product;
+import com.example.store.repository.ProductRepository;
+import com.example.store.security.config.TestSecurityConfig;
+
+/**
+ * Concurrent PUTs through ProductService against the in-memory database. Not transactional,
+ * so the products written here are deleted at the end of each test.
+ */
+@SpringBootTest
+@ActiveProfiles("IntegrationTest")
+@ContextConfiguration(classes = { TestSecurityConfig.class })
+class ProductUpsertStressTests {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private static Product product(String name, double amount) {
+        Price price = new Price();
+        price.setAmount(BigDecimal.valueOf(amount));
+        price.setCurrency(Currency.getInstance("EUR"));
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        return product;
+    }
+
+    // Run the task on every thread at once, failing on the first error
+    private static void concurrently(Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentUpsertsOfSameNewProducts() throws Exception {
+        int rounds = 5;
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        long before = productRepository.count();
+        try {
+            // Every thread creates or updates every product, in its own order
+            concurrently(() -> {
+                List<UUID> order = new ArrayList<>(ids);
+                for (int round = 0; round < rounds; round++) {
+                    Collections.shuffle(order);
+                    for (UUID id : order) {
+                        productService.upsert(id, product("Stress " + id, round));
+                    }
+                }
+                return null;
+            });
+
+            assertEquals(before + ids.size(), productRepository.count());
+            for (UUID id : ids) {
+                Product product = productRepository.findById(id).orElseThrow();
+                // Created once, then every other write was an update
+                assertEquals(THREADS * rounds - 1, product.getVersion());
+                assertEquals("Stress " + id, product.getName());
+            }
+        } finally {
+            ids.forEach(productService::deleteById);
+        }
+        assertEquals(before, productRepository.count());
+    }
+
+    // Concurrent updates of existing products, each thread owning a slice of them. Every
+    // update must be applied once, none lost to another and no row added. Throughput of this
+    // path against a lookup followed by a save is measured by ProductUpsertBenchmarks.
+    @Test
+    void concurrentUpdatesOfExistingProducts() throws Exception {
+        int perThread = 10;
+        int rounds = 4;
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < THREADS * perThread; i++) {
+            UUID id = UUID.randomUUID();
+            productService.upsert(id, product("Concurrent " + i, 1));
+            ids.add(id);
+        }
+        long before = productRepository.count();
+        try {
+            ConcurrentLinkedQueue<List<UUID>> slices = new ConcurrentLinkedQueue<>();
+            for (int from = 0; from < ids.size(); from += perThread) {
+                slices.add(ids.subList(from, from + perThread));
+            }
+            concurrently(() -> {
+                List<UUID> slice = slices.poll();
+                for (int round = 0; round < rounds; round++) {
+                    for (UUID id : slice) {
+                        productService.upsert(id, product("Updated " + round, round));
+                    }
+                }
+                return null;
+            });
+
+            assertEquals(before, productRepository.count());
+            for (UUID id : ids) {
+                Product product = productRepository.findById(id).orElseThrow();
+                assertEquals(rounds, product.getVersion());
+                assertEquals("Updated " + (rounds - 1), product.getName());
+            }
+        } finally {
+            ids.forEach(productService::deleteById);
+        }
+    }
+}